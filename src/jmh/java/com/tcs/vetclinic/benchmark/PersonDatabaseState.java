@@ -0,0 +1,65 @@
+package com.tcs.vetclinic.benchmark;
+
+import com.tcs.vetclinic.VetclinicApplication;
+import com.tcs.vetclinic.dao.PersonRepository;
+import com.tcs.vetclinic.service.PersonService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+@State(Scope.Benchmark)
+public class PersonDatabaseState {
+    private static final Path FILE_DB_DIR = Path.of("target", "benchmark-db");
+
+    @Param({"mem", "file"})
+    public String storage;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    public ConfigurableApplicationContext context;
+    public PersonService personService;
+    public PersonRepository personRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String url = "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1";
+        if ("file".equals(storage)) {
+            FileSystemUtils.deleteRecursively(FILE_DB_DIR);
+            url = "jdbc:h2:" + FILE_DB_DIR.resolve("vetclinic").toAbsolutePath();
+        }
+        context = new SpringApplicationBuilder(VetclinicApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + url,
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+        personService = context.getBean(PersonService.class);
+        personRepository = context.getBean(PersonRepository.class);
+        context.getBean(JdbcTemplate.class).update(
+                "INSERT INTO person (name) SELECT 'client-' || x FROM system_range(1, ?)", rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(FILE_DB_DIR);
+    }
+
+    public long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, rows + 1);
+    }
+}
@@ -0,0 +1,65 @@
+package com.tcs.vetclinic.benchmark;
+
+import com.tcs.vetclinic.domain.page.Cursor;
+import com.tcs.vetclinic.domain.page.CursorPage;
+import com.tcs.vetclinic.domain.person.Person;
+import com.tcs.vetclinic.domain.sort.SortType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonReadBenchmark {
+    private static final int PAGE_SIZE = 10;
+
+    /**
+     * Читает репозиторий напрямую: PersonService.findById отвечает из PersonCache, и при rows не больше размера
+     * кэша замер показывал бы Caffeine, а не запрос к базе.
+     */
+    @Benchmark
+    public Optional<Person> findById(PersonDatabaseState state) {
+        return state.personRepository.findById(state.randomId());
+    }
+
+    @Benchmark
+    public List<Person> findAllAscShallow(PersonDatabaseState state) {
+        return state.personService.findAll(0, PAGE_SIZE, SortType.ASC);
+    }
+
+    @Benchmark
+    public List<Person> findAllAscDeep(PersonDatabaseState state) {
+        return state.personService.findAll(lastPage(state), PAGE_SIZE, SortType.ASC);
+    }
+
+    @Benchmark
+    public List<Person> findAllDescShallow(PersonDatabaseState state) {
+        return state.personService.findAll(0, PAGE_SIZE, SortType.DESC);
+    }
+
+    @Benchmark
+    public List<Person> findAllDescDeep(PersonDatabaseState state) {
+        return state.personService.findAll(lastPage(state), PAGE_SIZE, SortType.DESC);
+    }
+
+    @Benchmark
+    public CursorPage<Person> findAllCursorDeep(PersonDatabaseState state) {
+        String after = Cursor.encode((long) lastPage(state) * PAGE_SIZE);
+        return state.personService.findAll(after, null, PAGE_SIZE, SortType.ASC);
+    }
+
+    private static int lastPage(PersonDatabaseState state) {
+        return state.rows / PAGE_SIZE - 1;
+    }
+}
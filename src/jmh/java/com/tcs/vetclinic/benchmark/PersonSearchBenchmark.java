@@ -0,0 +1,33 @@
+package com.tcs.vetclinic.benchmark;
+
+import com.tcs.vetclinic.domain.page.CursorPage;
+import com.tcs.vetclinic.domain.person.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonSearchBenchmark {
+
+    @Benchmark
+    public CursorPage<Person> searchByExactName(PersonDatabaseState state) {
+        return state.personService.search("CLIENT-" + state.randomId(), null, 10);
+    }
+
+    @Benchmark
+    public CursorPage<Person> searchByWidePrefix(PersonDatabaseState state) {
+        int n = ThreadLocalRandom.current().nextInt(1, 10);
+        return state.personService.search("client-" + n, null, 10);
+    }
+}
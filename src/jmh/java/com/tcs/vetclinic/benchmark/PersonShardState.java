@@ -0,0 +1,48 @@
+package com.tcs.vetclinic.benchmark;
+
+import com.tcs.vetclinic.VetclinicApplication;
+import com.tcs.vetclinic.service.PersonService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@State(Scope.Benchmark)
+public class PersonShardState {
+    private static final Path SHARD_DB_DIR = Path.of("target", "benchmark-shards");
+
+    @Param({"1", "4"})
+    public int shards;
+
+    public ConfigurableApplicationContext context;
+    public PersonService personService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        FileSystemUtils.deleteRecursively(SHARD_DB_DIR);
+        context = new SpringApplicationBuilder(VetclinicApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "vetclinic.sharding.shards=" + shards,
+                        "vetclinic.sharding.url=jdbc:h2:" + SHARD_DB_DIR.resolve("vetclinic-%d").toAbsolutePath(),
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+        personService = context.getBean(PersonService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(SHARD_DB_DIR);
+    }
+}
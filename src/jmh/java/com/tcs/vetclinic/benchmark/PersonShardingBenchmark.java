@@ -0,0 +1,38 @@
+package com.tcs.vetclinic.benchmark;
+
+import com.tcs.vetclinic.domain.batch.BatchResult;
+import com.tcs.vetclinic.domain.person.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class PersonShardingBenchmark {
+    private static final List<Person> BATCH = IntStream.range(0, 100)
+            .mapToObj(i -> new Person("benchmark client " + i))
+            .toList();
+
+    @Benchmark
+    public Person save(PersonShardState state) {
+        return state.personService.save(new Person("benchmark client"));
+    }
+
+    @Benchmark
+    public BatchResult saveAll(PersonShardState state) {
+        return state.personService.saveAll(BATCH.iterator());
+    }
+}
@@ -0,0 +1,30 @@
+package com.tcs.vetclinic.benchmark;
+
+import com.tcs.vetclinic.domain.person.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonWriteBenchmark {
+
+    @Benchmark
+    public Person save(PersonDatabaseState state) {
+        return state.personService.save(new Person("benchmark client"));
+    }
+
+    @Benchmark
+    public void updateById(PersonDatabaseState state) {
+        state.personService.updateById(state.randomId(), new Person("updated client"));
+    }
+}
@@ -0,0 +1,272 @@
+package com.tcs.vetclinic.loadtest;
+
+import com.tcs.vetclinic.VetclinicApplication;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Open-loop load generator for the /person API.
+ * <p>
+ * Requests are issued at a fixed arrival rate regardless of how fast the server answers, and latency is measured
+ * from the intended send time, so a stalled server shows up in the percentiles instead of silently lowering the load.
+ * Without {@code --url} the application is started in-process on a random port against an in-memory H2.
+ * <p>
+ * Every HTTP/1.1 request in flight holds its own connection, so the peak in-flight count is the number of open
+ * connections. When the server exposes the actuator metrics endpoint, its live thread count is sampled once a second
+ * and the report shows how many connections each server thread carried at the peak.
+ * <p>
+ * {@code mvn -B -Ploadtest -DskipTests verify -Dloadtest.args="--rate=200 --duration=60s --max-p99-ms=50"}
+ */
+public class LoadTest {
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+    private static final Pattern METRIC_VALUE = Pattern.compile("\"value\"\\s*:\\s*([0-9.]+)");
+
+    private final LoadTestOptions options;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final IdPool ids = new IdPool();
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong peakInFlight = new AtomicLong();
+    private final AtomicLong peakServerThreads = new AtomicLong();
+
+    LoadTest(LoadTestOptions options) {
+        this.options = options;
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.url();
+        if (Objects.isNull(baseUrl)) {
+            context = startInProcess(options.profiles());
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/api";
+        }
+
+        boolean passed;
+        try {
+            passed = new LoadTest(options).run(baseUrl);
+        } finally {
+            if (Objects.nonNull(context)) {
+                context.close();
+            }
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static ConfigurableApplicationContext startInProcess(String profiles) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(VetclinicApplication.class);
+        if (Objects.nonNull(profiles)) {
+            builder.profiles(profiles.split(","));
+        }
+        return builder.run(
+                "--server.port=0",
+                "--management.endpoints.web.exposure.include=health,metrics",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN");
+    }
+
+    boolean run(String baseUrl) throws IOException, InterruptedException {
+        seed(baseUrl);
+        drive(baseUrl, options.warmup(), false);
+        histograms.values().forEach(Histogram::reset);
+        errors.values().forEach(counter -> counter.set(0));
+        peakInFlight.set(0);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> sampleServerThreads(baseUrl), 0, 1, TimeUnit.SECONDS);
+        try {
+            drive(baseUrl, options.duration(), true);
+        } finally {
+            sampler.shutdownNow();
+        }
+        return report();
+    }
+
+    private void sampleServerThreads(String baseUrl) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/jvm.threads.live"))
+                .timeout(Duration.ofSeconds(1))
+                .GET()
+                .build();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            Matcher value = METRIC_VALUE.matcher(response.body());
+            if (response.statusCode() == 200 && value.find()) {
+                peakServerThreads.accumulateAndGet((long) Double.parseDouble(value.group(1)), Math::max);
+            }
+        } catch (IOException e) {
+            // the server is too busy to answer; the next sample will try again
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void seed(String baseUrl) throws IOException, InterruptedException {
+        StringJoiner persons = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < options.seed(); i++) {
+            persons.add("{\"name\":\"seed client " + i + "\"}");
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/person/batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(persons.toString()))
+                .build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        String list = body.substring(body.indexOf('[') + 1, body.indexOf(']'));
+        for (String id : list.split(",")) {
+            if (!id.isBlank() && !"null".equals(id)) {
+                ids.add(Long.parseLong(id.trim()));
+            }
+        }
+    }
+
+    private void drive(String baseUrl, Duration duration, boolean measured) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / options.rate();
+        long begin = System.nanoTime();
+        long end = begin + duration.toNanos();
+        for (long i = 0; ; i++) {
+            long intended = begin + i * interval;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(baseUrl, pick(), intended);
+        }
+        while (inFlight.get() > 0) {
+            Thread.sleep(10);
+        }
+        if (measured) {
+            System.out.printf(Locale.ROOT, "issued %d requests in %s%n",
+                    histograms.values().stream().mapToLong(Histogram::getTotalCount).sum(), duration);
+        }
+    }
+
+    private void send(String baseUrl, Operation operation, long intended) {
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        client.sendAsync(operation.request(baseUrl, ids), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+                    histograms.get(operation).recordValue(Math.min(latency, MAX_LATENCY_MICROS));
+                    if (Objects.nonNull(error) || response.statusCode() >= 500) {
+                        errors.get(operation).incrementAndGet();
+                    } else if (Operation.CREATE.equals(operation) && response.statusCode() == 201) {
+                        ids.add(Long.parseLong(response.body().trim()));
+                    }
+                    inFlight.decrementAndGet();
+                });
+    }
+
+    private Operation pick() {
+        int total = options.mix().values().stream().mapToInt(Integer::intValue).sum();
+        int roll = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Operation, Integer> entry : options.mix().entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Пустой набор операций");
+    }
+
+    private boolean report() throws IOException {
+        Files.createDirectories(options.reportDir());
+        double seconds = options.duration().toMillis() / 1000.0;
+        Histogram total = new Histogram(MAX_LATENCY_MICROS, 3);
+        StringJoiner json = new StringJoiner(",\n", "{\n", "\n}\n");
+
+        System.out.printf(Locale.ROOT, "%-8s %8s %8s %10s %9s %9s %9s %9s%n",
+                "op", "count", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            total.add(histogram);
+            String name = operation.name().toLowerCase(Locale.ROOT);
+            try (PrintStream out = new PrintStream(options.reportDir().resolve(name + ".hgrm").toFile())) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+            System.out.println(line(name, histogram, errors.get(operation).get(), seconds));
+            json.add(jsonEntry(name, histogram, errors.get(operation).get(), seconds));
+        }
+        long totalErrors = errors.values().stream().mapToLong(AtomicLong::get).sum();
+        System.out.println(line("total", total, totalErrors, seconds));
+        json.add(jsonEntry("total", total, totalErrors, seconds));
+        long threads = peakServerThreads.get();
+        if (threads > 0) {
+            System.out.printf(Locale.ROOT, "peak connections %d, peak server threads %d, %.2f connections per thread%n",
+                    peakInFlight.get(), threads, (double) peakInFlight.get() / threads);
+        } else {
+            System.out.printf(Locale.ROOT, "peak connections %d, server threads not available%n", peakInFlight.get());
+        }
+        json.add(String.format(Locale.ROOT, "  \"concurrency\": {\"peakConnections\": %d, \"peakServerThreads\": %d}",
+                peakInFlight.get(), threads));
+        try (PrintStream out = new PrintStream(options.reportDir().resolve("total.hgrm").toFile())) {
+            total.outputPercentileDistribution(out, 1000.0);
+        }
+        Files.writeString(options.reportDir().resolve("summary.json"), json.toString());
+
+        double p99 = total.getValueAtPercentile(99) / 1000.0;
+        double throughput = total.getTotalCount() / seconds;
+        boolean passed = true;
+        if (options.maxP99Millis() > 0 && p99 > options.maxP99Millis()) {
+            System.out.printf(Locale.ROOT, "FAIL: p99 %.2f ms > %.2f ms%n", p99, options.maxP99Millis());
+            passed = false;
+        }
+        if (options.minThroughput() > 0 && throughput < options.minThroughput()) {
+            System.out.printf(Locale.ROOT, "FAIL: throughput %.1f req/s < %.1f req/s%n", throughput, options.minThroughput());
+            passed = false;
+        }
+        return passed;
+    }
+
+    private static String line(String name, Histogram histogram, long errors, double seconds) {
+        return String.format(Locale.ROOT, "%-8s %8d %8d %10.1f %9.2f %9.2f %9.2f %9.2f",
+                name, histogram.getTotalCount(), errors, histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0);
+    }
+
+    private static String jsonEntry(String name, Histogram histogram, long errors, double seconds) {
+        return String.format(Locale.ROOT,
+                "  \"%s\": {\"count\": %d, \"errors\": %d, \"throughput\": %.1f, "
+                        + "\"p50Ms\": %.3f, \"p99Ms\": %.3f, \"p999Ms\": %.3f, \"maxMs\": %.3f}",
+                name, histogram.getTotalCount(), errors, histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0);
+    }
+}
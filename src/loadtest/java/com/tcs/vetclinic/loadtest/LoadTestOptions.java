@@ -0,0 +1,51 @@
+package com.tcs.vetclinic.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+record LoadTestOptions(String url,
+                       String profiles,
+                       int rate,
+                       Duration warmup,
+                       Duration duration,
+                       Map<Operation, Integer> mix,
+                       int seed,
+                       Path reportDir,
+                       double maxP99Millis,
+                       double minThroughput) {
+
+    private static final String DEFAULT_MIX = "create:10,get:50,list:30,update:5,delete:5";
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Ожидался аргумент вида --name=value: " + arg);
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return new LoadTestOptions(
+                values.get("url"),
+                values.get("profiles"),
+                Integer.parseInt(values.getOrDefault("rate", "100")),
+                Duration.parse("PT" + values.getOrDefault("warmup", "10s")),
+                Duration.parse("PT" + values.getOrDefault("duration", "60s")),
+                parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+                Integer.parseInt(values.getOrDefault("seed", "1000")),
+                Path.of(values.getOrDefault("report-dir", "target/loadtest")),
+                Double.parseDouble(values.getOrDefault("max-p99-ms", "0")),
+                Double.parseDouble(values.getOrDefault("min-throughput", "0")));
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+}
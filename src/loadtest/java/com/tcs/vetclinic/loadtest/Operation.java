@@ -0,0 +1,50 @@
+package com.tcs.vetclinic.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.concurrent.ThreadLocalRandom;
+
+enum Operation {
+    CREATE {
+        @Override
+        HttpRequest request(String baseUrl, IdPool ids) {
+            return json(baseUrl + "/person").POST(body()).build();
+        }
+    },
+    GET {
+        @Override
+        HttpRequest request(String baseUrl, IdPool ids) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/person/" + ids.pick())).GET().build();
+        }
+    },
+    LIST {
+        @Override
+        HttpRequest request(String baseUrl, IdPool ids) {
+            int page = ThreadLocalRandom.current().nextInt(100);
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/person?size=10&page=" + page)).GET().build();
+        }
+    },
+    UPDATE {
+        @Override
+        HttpRequest request(String baseUrl, IdPool ids) {
+            return json(baseUrl + "/person/" + ids.pick()).PUT(body()).build();
+        }
+    },
+    DELETE {
+        @Override
+        HttpRequest request(String baseUrl, IdPool ids) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/person/" + ids.take())).DELETE().build();
+        }
+    };
+
+    abstract HttpRequest request(String baseUrl, IdPool ids);
+
+    private static HttpRequest.Builder json(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).header("Content-Type", "application/json");
+    }
+
+    private static HttpRequest.BodyPublisher body() {
+        return HttpRequest.BodyPublishers.ofString(
+                "{\"name\":\"load client " + ThreadLocalRandom.current().nextInt(1_000_000) + "\"}");
+    }
+}
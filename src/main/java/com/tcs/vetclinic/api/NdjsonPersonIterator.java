@@ -0,0 +1,55 @@
+package com.tcs.vetclinic.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.tcs.vetclinic.domain.person.Person;
+import com.tcs.vetclinic.service.InvalidBatchError;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+class NdjsonPersonIterator implements Iterator<Person> {
+    private final BufferedReader reader;
+    private final ObjectReader objectReader;
+    private String nextLine;
+
+    NdjsonPersonIterator(BufferedReader reader, ObjectReader objectReader) {
+        this.reader = reader;
+        this.objectReader = objectReader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (nextLine == null) {
+                String line = reader.readLine();
+                if (line == null) {
+                    return false;
+                }
+                if (!line.isBlank()) {
+                    nextLine = line;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Person next() throws InvalidBatchError {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String line = nextLine;
+        nextLine = null;
+        try {
+            return objectReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new InvalidBatchError("Некорректный JSON: " + e.getOriginalMessage());
+        }
+    }
+}
@@ -1,5 +1,13 @@
 package com.tcs.vetclinic.api;
 
+import com.tcs.vetclinic.domain.batch.BatchResult;
+import com.tcs.vetclinic.domain.change.ChangeBatch;
+import com.tcs.vetclinic.domain.change.PersonChange;
+import com.tcs.vetclinic.domain.delete.BulkDeleteProgress;
+import com.tcs.vetclinic.domain.export.ExportFormat;
+import com.tcs.vetclinic.domain.importjob.ImportJob;
+import com.tcs.vetclinic.domain.importjob.ImportJobRequest;
+import com.tcs.vetclinic.domain.lookup.PersonLookup;
 import com.tcs.vetclinic.domain.person.Person;
 import com.tcs.vetclinic.domain.sort.SortType;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,56 +20,249 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 @RequestMapping("/person")
-@Tag(name = "person", description = "Api для работы с перс. данными клиентов")
+@Tag(name = "person", description = "Api для работы с перс. данными клиентов. Кроме JSON, по заголовкам "
+        + "Accept/Content-Type поддерживаются бинарные CBOR (application/cbor) и Smile (application/x-jackson-smile)")
 public interface PersonClient {
 
+    String NDJSON_VALUE = "application/x-ndjson";
+    String SMILE_VALUE = "application/x-jackson-smile";
+    String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    String PREV_CURSOR_HEADER = "X-Prev-Cursor";
+    String TOTAL_COUNT_HEADER = "X-Total-Count";
+    String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
     @GetMapping
-    @Operation(summary = "Информация о всех клиентах клиники")
+    @Operation(summary = "Информация о всех клиентах клиники",
+            description = "Постраничный вывод по page/size либо по курсору after/before. "
+                    + "В режиме курсора page игнорируется, а курсоры соседних страниц возвращаются "
+                    + "в заголовках " + NEXT_CURSOR_HEADER + " и " + PREV_CURSOR_HEADER + ". Обход по курсору "
+                    + "начинается с пустого after= (первая страница) или before= (последняя). С total=true "
+                    + "приблизительное общее число клиентов возвращается в заголовке " + TOTAL_COUNT_HEADER)
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Информация о клиентах клиники",
                     content = {
-                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, array = @ArraySchema(schema = @Schema(implementation = Person.class)))}),
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, array = @ArraySchema(schema = @Schema(implementation = Person.class))),
+                            @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, array = @ArraySchema(schema = @Schema(implementation = Person.class))),
+                            @Content(mediaType = SMILE_VALUE, array = @ArraySchema(schema = @Schema(implementation = Person.class)))}),
+            @ApiResponse(responseCode = "304", description = "Страница не изменилась (If-None-Match)", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Unexpected error", content = @Content)
+    })
+    @Parameter(name = "after", in = ParameterIn.QUERY, description = "Курсор: страница после указанной записи, пустой - первая страница")
+    @Parameter(name = "before", in = ParameterIn.QUERY, description = "Курсор: страница перед указанной записью, пустой - последняя страница")
+    @Parameter(name = "total", in = ParameterIn.QUERY, description = "Вернуть заголовок " + TOTAL_COUNT_HEADER)
+    ResponseEntity<Iterable<Person>> findAll(@RequestParam(defaultValue = "0") int page,
+                                             @RequestParam(defaultValue = "10") int size,
+                                             @RequestParam(defaultValue = "ASC") SortType sort,
+                                             @RequestParam(required = false) String after,
+                                             @RequestParam(required = false) String before,
+                                             @RequestParam(defaultValue = "false") boolean total);
+
+    @GetMapping(params = "ids")
+    @Operation(summary = "Информация о нескольких клиентах клиники по списку id",
+            description = "Клиенты возвращаются в порядке переданных id, на месте ненайденного - null, "
+                    + "а ненайденные id перечислены в missing. Число id ограничено vetclinic.lookup.max-ids")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Найденные клиенты и ненайденные id",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = PersonLookup.class)),
+                            @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, schema = @Schema(implementation = PersonLookup.class)),
+                            @Content(mediaType = SMILE_VALUE, schema = @Schema(implementation = PersonLookup.class))}),
+            @ApiResponse(responseCode = "400", description = "Слишком много или пустые id", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Unexpected error", content = @Content)
+    })
+    @Parameter(name = "ids", in = ParameterIn.QUERY, description = "id клиентов через запятую")
+    PersonLookup findAllById(@RequestParam List<Long> ids);
+
+    @PostMapping(value = "/lookup", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Информация о нескольких клиентах клиники по списку id в теле запроса",
+            description = "То же, что GET /person?ids=..., для списков, которые не помещаются в URL")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Найденные клиенты и ненайденные id",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = PersonLookup.class)),
+                            @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, schema = @Schema(implementation = PersonLookup.class)),
+                            @Content(mediaType = SMILE_VALUE, schema = @Schema(implementation = PersonLookup.class))}),
+            @ApiResponse(responseCode = "400", description = "Слишком много или пустые id", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Unexpected error", content = @Content)
+    })
+    PersonLookup lookup(@RequestBody List<Long> ids);
+
+    @GetMapping("/count")
+    @Operation(summary = "Количество клиентов клиники",
+            description = "Число берется из счетчика, который ведется в транзакциях вставки и удаления, "
+                    + "без сканирования таблицы. С exact=false возвращается значение, закэшированное на "
+                    + "vetclinic.count.cache-ttl")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Количество клиентов",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(type = "integer"))}),
             @ApiResponse(responseCode = "500", description = "Unexpected error", content = @Content)
     })
-    Iterable<Person> findAll(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size, @RequestParam(defaultValue = "ASC") SortType sort);
+    Long count(@RequestParam(defaultValue = "true") boolean exact);
+
+    @GetMapping("/search")
+    @Operation(summary = "Поиск клиентов клиники по началу имени",
+            description = "Поиск без учета регистра по префиксу имени. Результаты упорядочены по имени, "
+                    + "курсор следующей страницы возвращается в заголовке " + NEXT_CURSOR_HEADER)
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Найденные клиенты клиники",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, array = @ArraySchema(schema = @Schema(implementation = Person.class))),
+                            @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, array = @ArraySchema(schema = @Schema(implementation = Person.class))),
+                            @Content(mediaType = SMILE_VALUE, array = @ArraySchema(schema = @Schema(implementation = Person.class)))}),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Unexpected error", content = @Content)
+    })
+    @Parameter(name = "name", in = ParameterIn.QUERY, description = "Начало имени клиента")
+    @Parameter(name = "after", in = ParameterIn.QUERY, description = "Курсор: страница после указанной записи")
+    ResponseEntity<Iterable<Person>> search(@NotBlank @RequestParam String name,
+                                            @RequestParam(defaultValue = "10") int size,
+                                            @RequestParam(required = false) String after);
+
+    @GetMapping("/export")
+    @Operation(summary = "Выгрузка всех клиентов клиники",
+            description = "Строки читаются однонаправленным JDBC-курсором и пишутся в ответ потоком, "
+                    + "поэтому потребление памяти не зависит от размера таблицы")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Поток клиентов в формате NDJSON или CSV",
+                    content = {
+                            @Content(mediaType = NDJSON_VALUE, schema = @Schema(implementation = Person.class)),
+                            @Content(mediaType = "text/csv", schema = @Schema(type = "string"))}),
+            @ApiResponse(responseCode = "500", description = "Unexpected error", content = @Content)
+    })
+    @Parameter(name = "fromId", in = ParameterIn.QUERY, description = "Нижняя граница id (включительно)")
+    @Parameter(name = "toId", in = ParameterIn.QUERY, description = "Верхняя граница id (включительно)")
+    ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                                                 @RequestParam(defaultValue = "ASC") SortType sort,
+                                                 @RequestParam(required = false) Long fromId,
+                                                 @RequestParam(required = false) Long toId);
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Поток изменений клиентов клиники (Server-Sent Events)",
+            description = "События changes содержат пакеты вставок, обновлений и удалений по порядку seq, id события - "
+                    + "seq последнего изменения в пакете. Чтение продолжается с after или с заголовка "
+                    + LAST_EVENT_ID_HEADER + ", без них - с текущего момента")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Поток пакетов изменений",
+                    content = {
+                            @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, array = @ArraySchema(schema = @Schema(implementation = PersonChange.class)))}),
+            @ApiResponse(responseCode = "410", description = "Изменения после указанного seq уже удалены из журнала", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Превышено число подписчиков (см. Retry-After) или лента отключена при шардировании", content = @Content)
+    })
+    @Parameter(name = "after", in = ParameterIn.QUERY, description = "seq, после которого начинать поток")
+    SseEmitter streamChanges(@RequestParam(required = false) Long after,
+                             @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) Long lastEventId);
+
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Изменения клиентов клиники (long-poll)",
+            description = "Возвращает до limit изменений после after; если их нет, ждет новых до timeout секунд. "
+                    + "Следующий запрос делается с after = next из ответа")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Пакет изменений, пустой по истечении timeout",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ChangeBatch.class))}),
+            @ApiResponse(responseCode = "410", description = "Изменения после указанного seq уже удалены из журнала", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Превышено число подписчиков (см. Retry-After) или лента отключена при шардировании", content = @Content)
+    })
+    @Parameter(name = "after", in = ParameterIn.QUERY, description = "seq, после которого читать изменения; без него - с текущего момента")
+    @Parameter(name = "timeout", in = ParameterIn.QUERY, description = "Сколько секунд ждать новых изменений")
+    DeferredResult<ChangeBatch> pollChanges(@RequestParam(required = false) Long after,
+                                            @RequestParam(defaultValue = "100") int limit,
+                                            @RequestParam(defaultValue = "30") int timeout);
 
     @GetMapping("/{id}")
-    @Operation(summary = "Информация о конкретном клиенте клиники")
+    @Operation(summary = "Информация о конкретном клиенте клиники",
+            description = "Ответ содержит ETag версии клиента; при совпадении If-None-Match возвращается 304 без тела")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Информация о клиенте",
                     content = {
-                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = Person.class))}),
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = Person.class)),
+                            @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE, schema = @Schema(implementation = Person.class)),
+                            @Content(mediaType = SMILE_VALUE, schema = @Schema(implementation = Person.class))}),
+            @ApiResponse(responseCode = "304", description = "Клиент не изменился", content = @Content),
             @ApiResponse(responseCode = "404", description = "Клиент не найден", content = @Content)
     })
     @Parameter(name = "id", in = ParameterIn.PATH, schema = @Schema(type = "integer"),
             description = "Идентификатор клиента в базе")
-    Person findById(@PositiveOrZero @NotNull @PathVariable long id);
+    ResponseEntity<Person> findById(@PositiveOrZero @NotNull @PathVariable long id);
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    @Operation(summary = "Метод добавления нового клиента клиники")
+    @Operation(summary = "Метод добавления нового клиента клиники",
+            description = "Повтор запроса с тем же заголовком " + IDEMPOTENCY_KEY_HEADER + " возвращает id, "
+                    + "выданный первым запросом, и не создает нового клиента")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Клиент добавлен в базу",
                     content = {
                             @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(type = "integer"))}),
+            @ApiResponse(responseCode = "422", description = "Некорректный или уже использованный для другой операции " + IDEMPOTENCY_KEY_HEADER, content = @Content),
+            @ApiResponse(responseCode = "503", description = "Очередь group commit переполнена, см. Retry-After", content = @Content),
             @ApiResponse(responseCode = "500", description = "Unexpected error", content = @Content)
     })
-    Long create(@Valid @RequestBody Person person);
+    Long create(@Valid @RequestBody Person person,
+                @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey);
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Пакетное добавление клиентов клиники",
+            description = "Клиенты валидируются по тем же правилам, что и в POST /person, и вставляются "
+                    + "JDBC-пакетами в отдельных транзакциях по чанкам. Ответ содержит id в порядке входных "
+                    + "данных (null для отклоненных) и ошибки по индексам отклоненных элементов. С заголовком "
+                    + IDEMPOTENCY_KEY_HEADER + " пакет вставляется в одной транзакции, а повтор возвращает первый ответ")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Валидные клиенты добавлены в базу",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = BatchResult.class))}),
+            @ApiResponse(responseCode = "413", description = "Пакет с " + IDEMPOTENCY_KEY_HEADER + " больше vetclinic.idempotency.max-batch-size клиентов", content = @Content),
+            @ApiResponse(responseCode = "422", description = "Некорректный или уже использованный для другой операции " + IDEMPOTENCY_KEY_HEADER, content = @Content),
+            @ApiResponse(responseCode = "500", description = "Unexpected error", content = @Content)
+    })
+    BatchResult createBatch(@RequestBody List<Person> persons,
+                            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey);
+
+    @PostMapping(value = "/batch", consumes = NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Пакетное добавление клиентов клиники из NDJSON-потока",
+            description = "Один клиент на строку. Строки читаются потоком и вставляются чанками по мере чтения. "
+                    + "Заголовок " + IDEMPOTENCY_KEY_HEADER + " работает так же, как для JSON-пакета")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Валидные клиенты добавлены в базу",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = BatchResult.class))}),
+            @ApiResponse(responseCode = "413", description = "Пакет с " + IDEMPOTENCY_KEY_HEADER + " больше vetclinic.idempotency.max-batch-size клиентов", content = @Content),
+            @ApiResponse(responseCode = "422", description = "Некорректный или уже использованный для другой операции " + IDEMPOTENCY_KEY_HEADER, content = @Content),
+            @ApiResponse(responseCode = "500", description = "Unexpected error", content = @Content)
+    })
+    BatchResult createBatch(InputStream persons,
+                            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) throws IOException;
 
     @DeleteMapping("/{id}")
     @Operation(summary = "Удаление данных клиента из базы")
@@ -73,14 +274,82 @@ public interface PersonClient {
             description = "Идентификатор клиента в базе")
     void delete(@PositiveOrZero @NotNull @PathVariable long id);
 
+    @DeleteMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Массовое удаление клиентов по списку id или по диапазону id",
+            description = "Список id передается в теле запроса, диапазон - в fromId и toId. Клиенты удаляются "
+                    + "порциями по vetclinic.bulk-delete.chunk-size id, каждая порция в своей транзакции. "
+                    + "Возвращается итог: число порций и удаленных клиентов")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Итог удаления",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = BulkDeleteProgress.class))}),
+            @ApiResponse(responseCode = "400", description = "Нет ни списка id, ни диапазона, либо передано и то и другое", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Unexpected error", content = @Content)
+    })
+    @Parameter(name = "fromId", in = ParameterIn.QUERY, description = "Нижняя граница id (включительно)")
+    @Parameter(name = "toId", in = ParameterIn.QUERY, description = "Верхняя граница id (включительно)")
+    BulkDeleteProgress deleteAll(@RequestParam(required = false) Long fromId,
+                                 @RequestParam(required = false) Long toId,
+                                 @RequestBody(required = false) List<Long> ids);
+
+    @DeleteMapping(produces = NDJSON_VALUE)
+    @Operation(summary = "Массовое удаление клиентов с построчным отчетом о ходе",
+            description = "То же, что DELETE /person, но после каждой закоммиченной порции в ответ пишется строка "
+                    + "с накопленным итогом. Последняя строка содержит done = true; если ее нет, удаление "
+                    + "прервалось и его можно повторить")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Поток итогов по порциям",
+                    content = {
+                            @Content(mediaType = NDJSON_VALUE, schema = @Schema(implementation = BulkDeleteProgress.class))}),
+            @ApiResponse(responseCode = "400", description = "Нет ни списка id, ни диапазона, либо передано и то и другое", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Unexpected error", content = @Content)
+    })
+    @Parameter(name = "fromId", in = ParameterIn.QUERY, description = "Нижняя граница id (включительно)")
+    @Parameter(name = "toId", in = ParameterIn.QUERY, description = "Верхняя граница id (включительно)")
+    ResponseEntity<StreamingResponseBody> deleteAllWithProgress(@RequestParam(required = false) Long fromId,
+                                                                @RequestParam(required = false) Long toId,
+                                                                @RequestBody(required = false) List<Long> ids);
+
+    @PostMapping(value = "/import-jobs", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Запуск фонового импорта клиентов из CSV-файла на сервере",
+            description = "Файл ищется в каталоге vetclinic.import.directory, в заголовке CSV должна быть колонка name. "
+                    + "Задание выполняется в фоне, ход виден в GET /person/import-jobs/{id}")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Задание создано и поставлено в очередь",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ImportJob.class))}),
+            @ApiResponse(responseCode = "400", description = "Файла нет в каталоге импорта", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Unexpected error", content = @Content)
+    })
+    ImportJob createImportJob(@RequestBody ImportJobRequest request);
+
+    @GetMapping("/import-jobs/{id}")
+    @Operation(summary = "Состояние задания импорта",
+            description = "Статус, checkpoint (прочитанные байты и строки), число импортированных и отклоненных строк, "
+                    + "скорость в строках в секунду и оценка оставшегося времени")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Состояние задания",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = ImportJob.class))}),
+            @ApiResponse(responseCode = "404", description = "Нет задания с таким id", content = @Content),
+            @ApiResponse(responseCode = "500", description = "Unexpected error", content = @Content)
+    })
+    @Parameter(name = "id", in = ParameterIn.PATH, schema = @Schema(type = "integer"),
+            description = "Идентификатор задания импорта")
+    ImportJob findImportJob(@PathVariable long id);
+
     @PutMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    @Operation(summary = "Обновление данных клиента в базе")
+    @Operation(summary = "Обновление данных клиента в базе",
+            description = "С заголовком If-Match клиент обновляется, только если его ETag не изменился")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Клиент обновлен в базе", content = @Content),
-            @ApiResponse(responseCode = "404", description = "Такого клиента нет в базе", content = @Content)
+            @ApiResponse(responseCode = "404", description = "Такого клиента нет в базе", content = @Content),
+            @ApiResponse(responseCode = "412", description = "Клиент был изменен после получения ETag", content = @Content)
     })
     @Parameter(name = "id", in = ParameterIn.PATH, schema = @Schema(type = "integer"),
            description = "Идентификатор клиента в базе")
-    void updateById(@PositiveOrZero @NotNull @PathVariable long id, @Valid @RequestBody Person personDto);
+    void updateById(@PositiveOrZero @NotNull @PathVariable long id, @Valid @RequestBody Person personDto,
+                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch);
 }
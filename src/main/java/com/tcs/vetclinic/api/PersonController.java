@@ -1,36 +1,205 @@
 package com.tcs.vetclinic.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.tcs.vetclinic.domain.batch.BatchResult;
+import com.tcs.vetclinic.domain.change.ChangeBatch;
+import com.tcs.vetclinic.domain.delete.BulkDeleteProgress;
+import com.tcs.vetclinic.domain.export.ExportFormat;
+import com.tcs.vetclinic.domain.importjob.ImportJob;
+import com.tcs.vetclinic.domain.importjob.ImportJobRequest;
+import com.tcs.vetclinic.domain.lookup.PersonLookup;
+import com.tcs.vetclinic.domain.page.CursorPage;
 import com.tcs.vetclinic.domain.person.Person;
 import com.tcs.vetclinic.domain.sort.SortType;
+import com.tcs.vetclinic.service.PersonChangeFeed;
+import com.tcs.vetclinic.service.PersonImportJobs;
 import com.tcs.vetclinic.service.PersonService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PersonController implements PersonClient {
 
     private final PersonService personService;
+    private final PersonChangeFeed personChangeFeed;
+    private final PersonImportJobs personImportJobs;
+    private final ObjectReader personReader;
+    private final ObjectWriter personWriter;
+    private final ObjectWriter progressWriter;
+    private final Duration sseTimeout;
 
-    public PersonController(PersonService personService) {
+    public PersonController(PersonService personService, PersonChangeFeed personChangeFeed,
+                            PersonImportJobs personImportJobs, ObjectMapper objectMapper,
+                            @Value("${vetclinic.changes.sse-timeout:30m}") Duration sseTimeout) {
         this.personService = personService;
+        this.personChangeFeed = personChangeFeed;
+        this.personImportJobs = personImportJobs;
+        this.personReader = objectMapper.readerFor(Person.class);
+        this.personWriter = objectMapper.writerFor(Person.class);
+        this.progressWriter = objectMapper.writerFor(BulkDeleteProgress.class);
+        this.sseTimeout = sseTimeout;
+    }
+
+    public ResponseEntity<Iterable<Person>> findAll(int page, int size, SortType sort, String after, String before,
+                                                    boolean total) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+        Long totalCount = total ? personService.count(false) : null;
+        if (Objects.nonNull(totalCount)) {
+            response.header(TOTAL_COUNT_HEADER, Long.toString(totalCount));
+        }
+        if (Objects.isNull(after) && Objects.isNull(before)) {
+            List<Person> persons = personService.findAll(page, size, sort);
+            return response.eTag(PersonETags.of(persons, totalCount)).body(persons);
+        }
+
+        CursorPage<Person> cursorPage = personService.findAll(after, before, size, sort);
+        response.eTag(PersonETags.of(cursorPage.items(), totalCount));
+        if (Objects.nonNull(cursorPage.next())) {
+            response.header(NEXT_CURSOR_HEADER, cursorPage.next());
+        }
+        if (Objects.nonNull(cursorPage.previous())) {
+            response.header(PREV_CURSOR_HEADER, cursorPage.previous());
+        }
+        return response.body(cursorPage.items());
+    }
+
+    public ResponseEntity<Iterable<Person>> search(String name, int size, String after) {
+        CursorPage<Person> cursorPage = personService.search(name, after, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT)
+                .eTag(PersonETags.of(cursorPage.items()));
+        if (Objects.nonNull(cursorPage.next())) {
+            response.header(NEXT_CURSOR_HEADER, cursorPage.next());
+        }
+        return response.body(cursorPage.items());
+    }
+
+    public ResponseEntity<StreamingResponseBody> export(ExportFormat format, SortType sort, Long fromId, Long toId) {
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            personService.export(fromId, toId, sort, new PersonExportWriter(writer, format, personWriter));
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .body(body);
+    }
+
+    public SseEmitter streamChanges(Long after, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+        PersonChangeFeed.Subscription subscription = personChangeFeed.subscribe(
+                Objects.nonNull(lastEventId) ? lastEventId : after,
+                changes -> emitter.send(SseEmitter.event()
+                        .id(Long.toString(changes.get(changes.size() - 1).seq()))
+                        .name("changes")
+                        .data(changes, MediaType.APPLICATION_JSON)));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+
+    public DeferredResult<ChangeBatch> pollChanges(Long after, int limit, int timeout) {
+        return personChangeFeed.poll(after, limit, Duration.ofSeconds(timeout));
+    }
+
+    public ResponseEntity<Person> findById(long id) {
+        Person person = personService.findById(id);
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).eTag(PersonETags.of(person)).body(person);
+    }
+
+    public PersonLookup findAllById(List<Long> ids) {
+        return personService.findAllById(ids);
+    }
+
+    public PersonLookup lookup(List<Long> ids) {
+        return personService.findAllById(ids);
+    }
+
+    public Long count(boolean exact) {
+        return personService.count(exact);
     }
 
-    public Iterable<Person> findAll(int page, int size, SortType sort) {
-        return personService.findAll(page, size, sort);
+    public Long create(Person person, String idempotencyKey) {
+        return personService.save(person, idempotencyKey);
     }
 
-    public Person findById(long id) {
-        return personService.findById(id);
+    public BatchResult createBatch(List<Person> persons, String idempotencyKey) {
+        return personService.saveAll(persons.iterator(), idempotencyKey);
     }
 
-    public Long create(Person person) {
-        return personService.save(person).getId();
+    public BatchResult createBatch(InputStream persons, String idempotencyKey) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(persons, StandardCharsets.UTF_8))) {
+            return personService.saveAll(new NdjsonPersonIterator(reader, personReader), idempotencyKey);
+        }
     }
 
     public void delete(long id) {
         personService.deleteById(id);
     }
 
-    public void updateById(long id, Person personDto) {
-        personService.updateById(id, personDto);
+    public BulkDeleteProgress deleteAll(Long fromId, Long toId, List<Long> ids) {
+        return personService.deleteAll(ids, fromId, toId, progress -> {
+        });
+    }
+
+    public ResponseEntity<StreamingResponseBody> deleteAllWithProgress(Long fromId, Long toId, List<Long> ids) {
+        personService.checkBulkDelete(ids, fromId, toId);
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            writeProgress(writer, personService.deleteAll(ids, fromId, toId, progress -> writeProgress(writer, progress)));
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(body);
+    }
+
+    public ImportJob createImportJob(ImportJobRequest request) {
+        return personImportJobs.submit(request.file());
+    }
+
+    public ImportJob findImportJob(long id) {
+        return personImportJobs.findById(id);
+    }
+
+    public void updateById(long id, Person personDto, String ifMatch) {
+        Long expectedVersion = PersonETags.expectedVersion(id, ifMatch);
+        if (Objects.isNull(expectedVersion)) {
+            personService.updateById(id, personDto);
+        } else {
+            personService.updateById(id, expectedVersion, personDto);
+        }
+    }
+
+    private void writeProgress(Writer writer, BulkDeleteProgress progress) {
+        try {
+            writer.write(progressWriter.writeValueAsString(progress));
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
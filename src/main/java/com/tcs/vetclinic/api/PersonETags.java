@@ -0,0 +1,48 @@
+package com.tcs.vetclinic.api;
+
+import com.tcs.vetclinic.domain.person.Person;
+import com.tcs.vetclinic.service.PersonVersionMismatchError;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+final class PersonETags {
+    private static final String ANY = "*";
+
+    private PersonETags() {
+    }
+
+    static String of(Person person) {
+        return "\"" + person.getId() + "." + person.getVersion() + "\"";
+    }
+
+    static String of(Iterable<Person> persons) {
+        return of(persons, null);
+    }
+
+    static String of(Iterable<Person> persons, Long total) {
+        StringBuilder state = new StringBuilder(Objects.toString(total, ""));
+        for (Person person : persons) {
+            state.append(person.getId()).append('.').append(person.getVersion()).append(';');
+        }
+        // слабый ETag: страница одна и та же в JSON/CBOR/Smile и со сжатием, а Tomcat не сжимает ответы со строгим ETag
+        return "W/\"" + DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    static Long expectedVersion(long id, String ifMatch) throws PersonVersionMismatchError {
+        if (Objects.isNull(ifMatch) || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        String prefix = "\"" + id + ".";
+        String tag = ifMatch.trim();
+        if (!tag.startsWith(prefix) || !tag.endsWith("\"")) {
+            throw new PersonVersionMismatchError("If-Match не соответствует клиенту " + id + ": " + ifMatch);
+        }
+        try {
+            return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PersonVersionMismatchError("Некорректный If-Match: " + ifMatch);
+        }
+    }
+}
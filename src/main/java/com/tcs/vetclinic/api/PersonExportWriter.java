@@ -0,0 +1,49 @@
+package com.tcs.vetclinic.api;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.tcs.vetclinic.domain.export.ExportFormat;
+import com.tcs.vetclinic.domain.person.Person;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+class PersonExportWriter implements Consumer<Person> {
+    private final Writer writer;
+    private final ExportFormat format;
+    private final ObjectWriter objectWriter;
+
+    PersonExportWriter(Writer writer, ExportFormat format, ObjectWriter objectWriter) throws IOException {
+        this.writer = writer;
+        this.format = format;
+        this.objectWriter = objectWriter;
+        if (ExportFormat.CSV.equals(format)) {
+            writer.write("id,name\n");
+        }
+    }
+
+    @Override
+    public void accept(Person person) {
+        try {
+            if (ExportFormat.CSV.equals(format)) {
+                writer.write(person.getId() + "," + csvField(person.getName()) + "\n");
+            } else {
+                writer.write(objectWriter.writeValueAsString(person));
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
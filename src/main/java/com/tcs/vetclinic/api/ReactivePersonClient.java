@@ -0,0 +1,123 @@
+package com.tcs.vetclinic.api;
+
+import com.tcs.vetclinic.domain.batch.BatchResult;
+import com.tcs.vetclinic.domain.person.Person;
+import com.tcs.vetclinic.domain.sort.SortType;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Контракт /person для профиля reactive: те же пути, параметры и коды ответов, что у {@link PersonClient},
+ * для создания, чтения, обновления и удаления клиентов.
+ */
+@RequestMapping("/person")
+@Tag(name = "person", description = "Неблокирующий Api для работы с перс. данными клиентов (WebFlux + R2DBC)")
+public interface ReactivePersonClient {
+
+    @GetMapping
+    @Operation(summary = "Информация о всех клиентах клиники",
+            description = "Постраничный вывод по page/size. Клиенты отдаются потоком по мере чтения из базы; "
+                    + "с Accept: " + PersonClient.NDJSON_VALUE + " - по одному на строку")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Информация о клиентах клиники",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, array = @ArraySchema(schema = @Schema(implementation = Person.class))),
+                            @Content(mediaType = PersonClient.NDJSON_VALUE, schema = @Schema(implementation = Person.class))}),
+            @ApiResponse(responseCode = "500", description = "Unexpected error", content = @Content)
+    })
+    Flux<Person> findAll(@RequestParam(defaultValue = "0") int page,
+                         @RequestParam(defaultValue = "10") int size,
+                         @RequestParam(defaultValue = "ASC") SortType sort);
+
+    @GetMapping("/count")
+    @Operation(summary = "Количество клиентов клиники",
+            description = "Число берется из счетчика, который ведется в транзакциях вставки и удаления")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Количество клиентов",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(type = "integer"))}),
+            @ApiResponse(responseCode = "500", description = "Unexpected error", content = @Content)
+    })
+    Mono<Long> count();
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Информация о конкретном клиенте клиники")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Информация о клиенте",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = Person.class))}),
+            @ApiResponse(responseCode = "404", description = "Клиент не найден", content = @Content)
+    })
+    @Parameter(name = "id", in = ParameterIn.PATH, schema = @Schema(type = "integer"),
+            description = "Идентификатор клиента в базе")
+    Mono<Person> findById(@PositiveOrZero @NotNull @PathVariable long id);
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Метод добавления нового клиента клиники")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Клиент добавлен в базу",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(type = "integer"))}),
+            @ApiResponse(responseCode = "500", description = "Unexpected error", content = @Content)
+    })
+    Mono<Long> create(@Valid @RequestBody Person person);
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Пакетное добавление клиентов клиники",
+            description = "Клиенты валидируются по тем же правилам, что и в POST /person, и вставляются по одному "
+                    + "по мере чтения тела запроса. Ответ содержит id в порядке входных данных (null для "
+                    + "отклоненных) и ошибки по индексам отклоненных элементов")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Валидные клиенты добавлены в базу",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = BatchResult.class))}),
+            @ApiResponse(responseCode = "500", description = "Unexpected error", content = @Content)
+    })
+    Mono<BatchResult> createBatch(@RequestBody Flux<Person> persons);
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Удаление данных клиента из базы")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Клиент удален из базы", content = @Content),
+            @ApiResponse(responseCode = "409", description = "Такого клиента нет в базе", content = @Content)
+    })
+    @Parameter(name = "id", in = ParameterIn.PATH, schema = @Schema(type = "integer"),
+            description = "Идентификатор клиента в базе")
+    Mono<Void> delete(@PositiveOrZero @NotNull @PathVariable long id);
+
+    @PutMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Обновление данных клиента в базе")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Клиент обновлен в базе", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Такого клиента нет в базе", content = @Content)
+    })
+    @Parameter(name = "id", in = ParameterIn.PATH, schema = @Schema(type = "integer"),
+            description = "Идентификатор клиента в базе")
+    Mono<Void> updateById(@PositiveOrZero @NotNull @PathVariable long id, @Valid @RequestBody Person personDto);
+}
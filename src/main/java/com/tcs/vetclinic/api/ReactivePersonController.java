@@ -0,0 +1,49 @@
+package com.tcs.vetclinic.api;
+
+import com.tcs.vetclinic.domain.batch.BatchResult;
+import com.tcs.vetclinic.domain.person.Person;
+import com.tcs.vetclinic.domain.sort.SortType;
+import com.tcs.vetclinic.service.ReactivePersonService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePersonController implements ReactivePersonClient {
+
+    private final ReactivePersonService personService;
+
+    public ReactivePersonController(ReactivePersonService personService) {
+        this.personService = personService;
+    }
+
+    public Flux<Person> findAll(int page, int size, SortType sort) {
+        return personService.findAll(page, size, sort);
+    }
+
+    public Mono<Long> count() {
+        return personService.count();
+    }
+
+    public Mono<Person> findById(long id) {
+        return personService.findById(id);
+    }
+
+    public Mono<Long> create(Person person) {
+        return personService.save(person).map(Person::getId);
+    }
+
+    public Mono<BatchResult> createBatch(Flux<Person> persons) {
+        return personService.saveAll(persons);
+    }
+
+    public Mono<Void> delete(long id) {
+        return personService.deleteById(id);
+    }
+
+    public Mono<Void> updateById(long id, Person personDto) {
+        return personService.updateById(id, personDto);
+    }
+}
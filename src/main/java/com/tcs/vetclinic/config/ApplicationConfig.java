@@ -1,7 +1,80 @@
 package com.tcs.vetclinic.config;
 
+import com.tcs.vetclinic.dao.PersonRepository;
+import com.tcs.vetclinic.dao.ReactivePersonRepository;
+import com.tcs.vetclinic.service.IdempotencyStore;
+import com.tcs.vetclinic.service.PersonChangeFeed;
+import com.tcs.vetclinic.service.PersonImportJobs;
+import com.tcs.vetclinic.service.PersonWriteBehind;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.aop.MeterTagAnnotationHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jdbc.repository.config.EnableJdbcRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+/**
+ * С R2DBC на classpath Spring Data выбирает модуль репозитория только по @Table или базовому интерфейсу,
+ * поэтому JDBC-репозитории перечислены явно.
+ */
 @Configuration
+@EnableScheduling
+@EnableJdbcRepositories(basePackageClasses = PersonRepository.class, excludeFilters =
+        @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ReactivePersonRepository.class))
 public class ApplicationConfig {
+
+    @Bean
+    public MeterTagAnnotationHandler meterTagAnnotationHandler() {
+        return new MeterTagAnnotationHandler(BeanUtils::instantiateClass, BeanUtils::instantiateClass);
+    }
+
+    @Bean
+    public FilterRegistrationBean<CompressionThresholdFilter> compressionThresholdFilter() {
+        FilterRegistrationBean<CompressionThresholdFilter> registration =
+                new FilterRegistrationBean<>(new CompressionThresholdFilter());
+        registration.addUrlPatterns("/person", "/person/*");
+        return registration;
+    }
+
+    /**
+     * Опрос ленты изменений, очистка ключей идемпотентности, запись write-behind и возобновление импорта работают
+     * без входящих запросов, поэтому при spring.main.lazy-initialization создаются сразу.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter backgroundComponentsEagerFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(PersonChangeFeed.class, IdempotencyStore.class,
+                PersonWriteBehind.class, PersonImportJobs.class);
+    }
+
+    /**
+     * Пулы Hikari получают трекер метрик до старта, поэтому стандартный трекер Spring Boot для них не ставится.
+     */
+    @Bean
+    public static BeanPostProcessor personOperationPoolMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari && hikari.getMetricsTrackerFactory() == null
+                        && hikari.getMetricRegistry() == null) {
+                    hikari.setMetricsTrackerFactory(new PersonOperationMetricsTrackerFactory(meterRegistry::getObject));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty("vetclinic.liquibase.skip-if-current")
+    public static CurrentSchemaLiquibaseSkipper currentSchemaLiquibaseSkipper() {
+        return new CurrentSchemaLiquibaseSkipper();
+    }
 }
@@ -1,7 +1,21 @@
 package com.tcs.vetclinic.config;
 
+import com.tcs.vetclinic.service.ImportJobNotFoundError;
+import com.tcs.vetclinic.service.InvalidBulkDeleteError;
+import com.tcs.vetclinic.service.InvalidCursorError;
+import com.tcs.vetclinic.service.IdempotentBatchTooLargeError;
+import com.tcs.vetclinic.service.InvalidIdempotencyKeyError;
+import com.tcs.vetclinic.service.InvalidImportFileError;
+import com.tcs.vetclinic.service.InvalidLookupError;
+import com.tcs.vetclinic.service.PersonChangeFeedDisabledError;
+import com.tcs.vetclinic.service.PersonChangeFeedFullError;
+import com.tcs.vetclinic.service.PersonChangesExpiredError;
 import com.tcs.vetclinic.service.PersonNotExistError;
 import com.tcs.vetclinic.service.PersonNotFoundError;
+import com.tcs.vetclinic.service.PersonVersionMismatchError;
+import com.tcs.vetclinic.service.PersonWriteQueueFullError;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -20,6 +34,71 @@ public class ApplicationErrorHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).build();
     }
 
+    @ExceptionHandler()
+    public ResponseEntity handleException(InvalidCursorError e) {
+        return ResponseEntity.badRequest().build();
+    }
+
+    @ExceptionHandler()
+    public ResponseEntity handleException(InvalidLookupError e) {
+        return ResponseEntity.badRequest().build();
+    }
+
+    @ExceptionHandler()
+    public ResponseEntity handleException(InvalidBulkDeleteError e) {
+        return ResponseEntity.badRequest().build();
+    }
+
+    @ExceptionHandler()
+    public ResponseEntity handleException(InvalidImportFileError e) {
+        return ResponseEntity.badRequest().build();
+    }
+
+    @ExceptionHandler()
+    public ResponseEntity handleException(ImportJobNotFoundError e) {
+        return ResponseEntity.notFound().build();
+    }
+
+    @ExceptionHandler()
+    public ResponseEntity handleException(PersonVersionMismatchError e) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+    }
+
+    @ExceptionHandler()
+    public ResponseEntity handleException(PersonWriteQueueFullError e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    @ExceptionHandler()
+    public ResponseEntity handleException(InvalidIdempotencyKeyError e) {
+        return ResponseEntity.unprocessableEntity().build();
+    }
+
+    @ExceptionHandler()
+    public ResponseEntity handleException(IdempotentBatchTooLargeError e) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+    }
+
+    @ExceptionHandler()
+    public ResponseEntity handleException(PersonChangesExpiredError e) {
+        return ResponseEntity.status(HttpStatus.GONE).build();
+    }
+
+    @ExceptionHandler()
+    public ResponseEntity handleException(PersonChangeFeedFullError e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    @ExceptionHandler()
+    public ResponseEntity handleException(PersonChangeFeedDisabledError e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
+    @ExceptionHandler()
+    public ResponseEntity handleException(CannotGetJdbcConnectionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
     @ExceptionHandler
     public ResponseEntity handleException(RuntimeException e) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
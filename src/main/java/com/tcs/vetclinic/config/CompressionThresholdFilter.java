@@ -0,0 +1,95 @@
+package com.tcs.vetclinic.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Jackson-конвертер делает flush после записи, и Tomcat отправляет даже маленький ответ chunked, без
+ * Content-Length; для таких ответов server.compression.min-response-size не работает и сжимается все подряд.
+ * Фильтр игнорирует flush, поэтому ответ, поместившийся в буфер Tomcat, уходит с Content-Length и сжимается
+ * только выше порога. Потоковые export, changes и отчет массового удаления (DELETE /person в NDJSON)
+ * не трогаем: там flush нужен.
+ */
+public class CompressionThresholdFilter extends OncePerRequestFilter {
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().endsWith("/export") || request.getRequestURI().endsWith("/changes")
+                || HttpMethod.DELETE.matches(request.getMethod())
+                && String.valueOf(request.getHeader(HttpHeaders.ACCEPT)).contains(NDJSON_VALUE);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(request, new NonFlushingResponse(response));
+    }
+
+    private static class NonFlushingResponse extends HttpServletResponseWrapper {
+        private ServletOutputStream outputStream;
+
+        NonFlushingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new NonFlushingOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public void flushBuffer() {
+        }
+    }
+
+    private static class NonFlushingOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+
+        NonFlushingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.tcs.vetclinic.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Раздельные адаптивные лимиты для чтений и записей /person, настраиваются в vetclinic.concurrency-limit.
+ */
+@Configuration
+@ConditionalOnProperty(value = "vetclinic.concurrency-limit.enabled", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public ConcurrencyLimiter readConcurrencyLimiter(
+            @Value("${vetclinic.concurrency-limit.read.initial-limit:50}") int initialLimit,
+            @Value("${vetclinic.concurrency-limit.read.min-limit:8}") int minLimit,
+            @Value("${vetclinic.concurrency-limit.read.max-limit:200}") int maxLimit,
+            @Value("${vetclinic.concurrency-limit.tolerance:2.0}") double tolerance,
+            @Value("${vetclinic.concurrency-limit.smoothing:0.2}") double smoothing,
+            MeterRegistry meterRegistry) {
+        return new ConcurrencyLimiter("read", initialLimit, minLimit, maxLimit, tolerance, smoothing, meterRegistry);
+    }
+
+    @Bean
+    public ConcurrencyLimiter writeConcurrencyLimiter(
+            @Value("${vetclinic.concurrency-limit.write.initial-limit:20}") int initialLimit,
+            @Value("${vetclinic.concurrency-limit.write.min-limit:4}") int minLimit,
+            @Value("${vetclinic.concurrency-limit.write.max-limit:100}") int maxLimit,
+            @Value("${vetclinic.concurrency-limit.tolerance:2.0}") double tolerance,
+            @Value("${vetclinic.concurrency-limit.smoothing:0.2}") double smoothing,
+            MeterRegistry meterRegistry) {
+        return new ConcurrencyLimiter("write", initialLimit, minLimit, maxLimit, tolerance, smoothing, meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Qualifier("readConcurrencyLimiter") ConcurrencyLimiter readLimiter,
+            @Qualifier("writeConcurrencyLimiter") ConcurrencyLimiter writeLimiter,
+            @Value("${vetclinic.concurrency-limit.retry-after:1s}") Duration retryAfter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(readLimiter, writeLimiter, Math.max(1, retryAfter.toSeconds())));
+        registration.addUrlPatterns("/person", "/person/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
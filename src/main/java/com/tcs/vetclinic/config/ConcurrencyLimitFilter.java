@@ -0,0 +1,101 @@
+package com.tcs.vetclinic.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Load shedding перед PersonController: запрос сверх текущего лимита сразу получает 503 с Retry-After,
+ * а не ждет в очереди Tomcat и Hikari. Чтения и записи ограничиваются раздельно, чтобы медленные записи
+ * не съедали лимит чтений. Потоковый export держит слот до конца выгрузки, но в замеры времени не попадает.
+ * Лента changes не ограничивается: подписчики часами ждут изменений, не занимая соединений с базой,
+ * и их число ограничено в PersonChangeFeed. POST /person/lookup только читает и идет по лимиту чтений.
+ * Массовое DELETE /person тоже не попадает в замеры: оно длится столько, сколько строк удаляет.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private static final Set<String> SAFE_METHODS = Set.of(
+            HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+
+    private final ConcurrencyLimiter readLimiter;
+    private final ConcurrencyLimiter writeLimiter;
+    private final String retryAfter;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiter readLimiter, ConcurrencyLimiter writeLimiter, long retryAfterSeconds) {
+        this.readLimiter = readLimiter;
+        this.writeLimiter = writeLimiter;
+        this.retryAfter = Long.toString(retryAfterSeconds);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().endsWith("/changes");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean read = SAFE_METHODS.contains(request.getMethod()) || request.getRequestURI().endsWith("/lookup");
+        ConcurrencyLimiter limiter = read ? readLimiter : writeLimiter;
+        if (!limiter.tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+            if (async) {
+                request.getAsyncContext().addListener(new ReleasingListener(limiter));
+            }
+        } finally {
+            if (!async && bulkDelete(request)) {
+                limiter.release();
+            } else if (!async) {
+                limiter.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static boolean bulkDelete(HttpServletRequest request) {
+        return HttpMethod.DELETE.matches(request.getMethod()) && request.getRequestURI().endsWith("/person");
+    }
+
+    private static class ReleasingListener implements AsyncListener {
+        private final ConcurrencyLimiter limiter;
+
+        ReleasingListener(ConcurrencyLimiter limiter) {
+            this.limiter = limiter;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limiter.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
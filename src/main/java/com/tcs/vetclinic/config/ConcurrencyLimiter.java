@@ -0,0 +1,89 @@
+package com.tcs.vetclinic.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Адаптивный лимит одновременных запросов в стиле gradient: долгое среднее время ответа сравнивается с текущим
+ * замером. Пока ответы не медленнее долгого среднего с учетом tolerance, лимит растет на sqrt(limit), при росте
+ * задержки сжимается пропорционально градиенту, но не больше чем вдвое за замер. Лимит не растет, пока
+ * занята меньше чем половина его, иначе он уплывет вверх при малой нагрузке.
+ */
+public class ConcurrencyLimiter {
+    public static final String METRIC = "vetclinic.person.concurrency";
+    private static final int LONG_WINDOW = 600;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final Counter rejected;
+    private volatile double limit;
+    private double longRttNanos;
+    private long samples;
+
+    public ConcurrencyLimiter(String type, int initialLimit, int minLimit, int maxLimit, double tolerance,
+                              double smoothing, MeterRegistry meterRegistry) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.rejected = Counter.builder(METRIC + ".rejected")
+                .tag("type", type)
+                .register(meterRegistry);
+        Gauge.builder(METRIC + ".limit", this, ConcurrencyLimiter::getLimit)
+                .tag("type", type)
+                .register(meterRegistry);
+        Gauge.builder(METRIC + ".inflight", inFlight, AtomicInteger::get)
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public void release(long rttNanos) {
+        int active = inFlight.getAndDecrement();
+        update(Math.max(1, rttNanos), active);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    private synchronized void update(long rttNanos, int active) {
+        samples++;
+        longRttNanos = samples == 1 ? rttNanos : longRttNanos + (rttNanos - longRttNanos) / Math.min(samples, LONG_WINDOW);
+        if (longRttNanos / rttNanos > 2) {
+            // задержка надолго ушла вниз: быстрее забываем старое среднее, иначе лимит растет без обратной связи
+            longRttNanos *= 0.95;
+        }
+        if (active < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / rttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
@@ -0,0 +1,103 @@
+package com.tcs.vetclinic.config;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Пропускает Liquibase при старте, если все changeset-ы formatted SQL changelog-а для активных contexts уже
+ * записаны в DATABASECHANGELOG: один SELECT вместо инициализации Liquibase, блокировки и сверки checksum-ов.
+ * Сравниваются только author:id, поэтому после правки уже примененного changeset-а приложение нужно
+ * запустить без vetclinic.liquibase.skip-if-current. Changeset-ы с runAlways/runOnChange и context-выражения
+ * сложнее списка имен не пропускаются никогда.
+ */
+public class CurrentSchemaLiquibaseSkipper implements BeanPostProcessor {
+    private static final Logger log = LoggerFactory.getLogger(CurrentSchemaLiquibaseSkipper.class);
+    private static final Pattern CHANGESET = Pattern.compile("^--\\s*changeset\\s+([^:\\s]+):(\\S+)(.*)$");
+    private static final Pattern CONTEXT = Pattern.compile("\\bcontext(?:Filter)?:(\\S+)");
+    private static final Pattern SIMPLE_CONTEXTS = Pattern.compile("[\\w-]+(,[\\w-]+)*");
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof SpringLiquibase liquibase && isCurrent(liquibase)) {
+            log.info("Schema is up to date with {}, skipping Liquibase", liquibase.getChangeLog());
+            liquibase.setShouldRun(false);
+        }
+        return bean;
+    }
+
+    private static boolean isCurrent(SpringLiquibase liquibase) {
+        try {
+            Set<String> pending = applicableChangeSets(liquibase);
+            if (Objects.isNull(pending)) {
+                return false;
+            }
+            pending.removeAll(appliedChangeSets(liquibase.getDataSource(),
+                    Objects.requireNonNullElse(liquibase.getDatabaseChangeLogTable(), "DATABASECHANGELOG")));
+            return pending.isEmpty();
+        } catch (IOException | SQLException e) {
+            // нет таблицы журнала или changelog-а: решение оставляем Liquibase
+            return false;
+        }
+    }
+
+    private static Set<String> applicableChangeSets(SpringLiquibase liquibase) throws IOException {
+        String changeLog = liquibase.getChangeLog();
+        if (Objects.isNull(changeLog) || !changeLog.endsWith(".sql")) {
+            return null;
+        }
+        Resource resource = liquibase.getResourceLoader().getResource(changeLog);
+        Set<String> active = StringUtils.commaDelimitedListToSet(liquibase.getContexts());
+        Set<String> changeSets = new HashSet<>();
+        for (String line : resource.getContentAsString(StandardCharsets.UTF_8).lines().toList()) {
+            Matcher changeSet = CHANGESET.matcher(line.trim());
+            if (!changeSet.matches()) {
+                continue;
+            }
+            String attributes = changeSet.group(3);
+            if (attributes.contains("runAlways:true") || attributes.contains("runOnChange:true")) {
+                return null;
+            }
+            Matcher context = CONTEXT.matcher(attributes);
+            if (context.find()) {
+                if (!SIMPLE_CONTEXTS.matcher(context.group(1)).matches()) {
+                    return null;
+                }
+                if (!active.isEmpty() && active.stream().noneMatch(
+                        StringUtils.commaDelimitedListToSet(context.group(1))::contains)) {
+                    continue;
+                }
+            }
+            changeSets.add(changeSet.group(1) + ":" + changeSet.group(2));
+        }
+        return changeSets;
+    }
+
+    private static Set<String> appliedChangeSets(DataSource dataSource, String table) throws SQLException {
+        Set<String> applied = new HashSet<>();
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT author, id FROM " + table)) {
+            while (rows.next()) {
+                applied.add(rows.getString(1) + ":" + rows.getString(2));
+            }
+        }
+        return applied;
+    }
+}
@@ -0,0 +1,52 @@
+package com.tcs.vetclinic.config;
+
+import com.tcs.vetclinic.domain.sort.SortType;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Tags;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * На время вызова метода PersonService запоминает в потоке его теги operation и sort (из @Timed и аргумента
+ * SortType), чтобы ожидание и удержание соединения пула относились к операции, а не только к пулу.
+ */
+@Aspect
+@Component
+public class PersonOperationAspect {
+    public static final Tags NO_OPERATION = Tags.of("operation", "other", "sort", "NONE");
+
+    private static final ThreadLocal<Tags> CURRENT = new ThreadLocal<>();
+
+    public static Tags current() {
+        return Objects.requireNonNullElse(CURRENT.get(), NO_OPERATION);
+    }
+
+    @Around("@annotation(timed) && within(com.tcs.vetclinic.service.PersonService)")
+    public Object tag(ProceedingJoinPoint joinPoint, Timed timed) throws Throwable {
+        Tags previous = CURRENT.get();
+        CURRENT.set(tags(timed, joinPoint.getArgs()));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            if (Objects.isNull(previous)) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    private static Tags tags(Timed timed, Object[] args) {
+        Tags tags = NO_OPERATION.and(timed.extraTags());
+        for (Object arg : args) {
+            if (arg instanceof SortType sort) {
+                tags = tags.and("sort", sort.name());
+            }
+        }
+        return tags;
+    }
+}
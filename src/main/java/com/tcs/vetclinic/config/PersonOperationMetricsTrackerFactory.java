@@ -0,0 +1,67 @@
+package com.tcs.vetclinic.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Стандартные метрики hikaricp.* плюс vetclinic.person.pool.acquire и .usage с тегами pool, operation и sort.
+ * Hikari сообщает о выдаче и возврате соединения в потоке, который его берет и закрывает, поэтому теги
+ * берутся из {@link PersonOperationAspect}.
+ */
+public class PersonOperationMetricsTrackerFactory implements MetricsTrackerFactory {
+    public static final String METRIC = "vetclinic.person.pool";
+
+    private final Supplier<MeterRegistry> meterRegistry;
+
+    public PersonOperationMetricsTrackerFactory(Supplier<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        MeterRegistry registry = meterRegistry.get();
+        IMetricsTracker pool = new MicrometerMetricsTrackerFactory(registry).create(poolName, poolStats);
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                pool.recordConnectionCreatedMillis(connectionCreatedMillis);
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                pool.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+                timer(registry, poolName, ".acquire").record(elapsedAcquiredNanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                pool.recordConnectionUsageMillis(elapsedBorrowedMillis);
+                timer(registry, poolName, ".usage").record(elapsedBorrowedMillis, TimeUnit.MILLISECONDS);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                pool.recordConnectionTimeout();
+            }
+
+            @Override
+            public void close() {
+                pool.close();
+            }
+        };
+    }
+
+    private static Timer timer(MeterRegistry registry, String poolName, String suffix) {
+        return Timer.builder(METRIC + suffix)
+                .tag("pool", poolName)
+                .tags(PersonOperationAspect.current())
+                .register(registry);
+    }
+}
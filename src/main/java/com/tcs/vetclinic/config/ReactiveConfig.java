@@ -0,0 +1,89 @@
+package com.tcs.vetclinic.config;
+
+import com.tcs.vetclinic.dao.ReactivePersonRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.r2dbc.config.AbstractR2dbcConfiguration;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Реактивный стек /person (профиль reactive): WebFlux на Netty и R2DBC-пул к той же базе H2, что и
+ * spring.datasource, поэтому схему по-прежнему накатывает Liquibase через JDBC. Пул настраивается
+ * в vetclinic.reactive.pool.
+ * <p>
+ * При наличии бина ConnectionFactory Spring Boot не создает JDBC-пул, поэтому он объявлен здесь
+ * (или в {@link ReadReplicaConfig}, если задан vetclinic.datasource.read.url).
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(DataSourceProperties.class)
+@EnableR2dbcRepositories(basePackageClasses = ReactivePersonRepository.class, includeFilters =
+        @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ReactivePersonRepository.class))
+public class ReactiveConfig extends AbstractR2dbcConfiguration {
+    private static final String H2_URL_PREFIX = "jdbc:h2:";
+
+    private final DataSourceProperties dataSourceProperties;
+    private final int initialSize;
+    private final int maxSize;
+    private final Duration maxAcquireTime;
+
+    public ReactiveConfig(DataSourceProperties dataSourceProperties,
+                          @Value("${vetclinic.reactive.pool.initial-size:10}") int initialSize,
+                          @Value("${vetclinic.reactive.pool.max-size:10}") int maxSize,
+                          @Value("${vetclinic.reactive.pool.max-acquire-time:30s}") Duration maxAcquireTime) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.initialSize = initialSize;
+        this.maxSize = maxSize;
+        this.maxAcquireTime = maxAcquireTime;
+    }
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    @ConditionalOnExpression("'${vetclinic.datasource.read.url:}'.isEmpty()")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource() {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    @Override
+    public ConnectionPool connectionFactory() {
+        String url = dataSourceProperties.determineUrl();
+        if (Objects.isNull(url) || !url.startsWith(H2_URL_PREFIX)) {
+            throw new IllegalStateException("Реактивный стек поддерживает только H2, spring.datasource.url: " + url);
+        }
+        ConnectionFactory connectionFactory = new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+                .url(url.substring(H2_URL_PREFIX.length()))
+                .username(Objects.requireNonNullElse(dataSourceProperties.determineUsername(), ""))
+                .password(Objects.requireNonNullElse(dataSourceProperties.determinePassword(), ""))
+                .build());
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .name("vetclinic-r2dbc")
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxAcquireTime(maxAcquireTime)
+                .build());
+    }
+}
@@ -0,0 +1,25 @@
+package com.tcs.vetclinic.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Ошибки реактивного стека (профиль reactive): WebFlux сообщает о неверных параметрах и отсутствующих
+ * маршрутах через ResponseStatusException, и его статус отдается как есть, а не как 500 из
+ * {@link ApplicationErrorHandler}. В MVC поведение прежнее.
+ */
+@ControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveErrorHandler {
+
+    @ExceptionHandler()
+    public ResponseEntity handleException(ResponseStatusException e) {
+        return ResponseEntity.status(e.getStatusCode()).headers(e.getHeaders()).build();
+    }
+}
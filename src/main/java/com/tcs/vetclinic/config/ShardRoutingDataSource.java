@@ -0,0 +1,86 @@
+package com.tcs.vetclinic.config;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Направляет соединения в базу шарда, выбранного через {@link #on}, все остальные - в домашний шард 0,
+ * где лежат таблицы кроме person. Как и {@link ReadWriteRoutingDataSource}, оборачивается в
+ * {@link LazyConnectionDataSourceProxy}, чтобы соединение бралось при первом запросе, когда шард уже выбран.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    public static final int HOME = 0;
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("Нужен хотя бы один шард");
+        }
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(HOME));
+        afterPropertiesSet();
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public DataSource shard(int shard) {
+        return shards.get(shard);
+    }
+
+    /**
+     * Выполняет action так, что соединения, взятые внутри, открываются в базе shard.
+     */
+    public static <T> T on(int shard, Supplier<T> action) {
+        Integer previous = SHARD.get();
+        SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (Objects.isNull(previous)) {
+                SHARD.remove();
+            } else {
+                SHARD.set(previous);
+            }
+        }
+    }
+
+    public static int currentShard() {
+        return Objects.requireNonNullElse(SHARD.get(), HOME);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentShard();
+    }
+
+    @Override
+    public void close() {
+        for (DataSource shard : shards) {
+            if (shard instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Не удалось закрыть пул шарда", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.tcs.vetclinic.config;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Objects;
+
+/**
+ * Готовит шарды к работе: накатывает на шарды 1..N-1 тот же changelog, что Liquibase накатил на домашний,
+ * и настраивает identity person так, что шард k выдает только id с (id - 1) mod N = k. Так id глобально
+ * уникальны без общей последовательности, а шард строки вычисляется по ее id. Строки на чужом шарде
+ * (данные без шардирования или с другим N) останавливают старт: перенос строк между шардами не делается.
+ */
+public class ShardSchemaInitializer implements InitializingBean {
+    private static final String IDENTITY_BASE_SQL = """
+      SELECT identity_base FROM information_schema.columns
+      WHERE table_schema = CURRENT_SCHEMA AND table_name = 'PERSON' AND column_name = 'ID'
+      """;
+
+    private final ShardRoutingDataSource shards;
+    private final SpringLiquibase liquibase;
+    private final ResourceLoader resourceLoader;
+
+    public ShardSchemaInitializer(ShardRoutingDataSource shards, SpringLiquibase liquibase, ResourceLoader resourceLoader) {
+        this.shards = shards;
+        this.liquibase = liquibase;
+        this.resourceLoader = resourceLoader;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            if (shard != ShardRoutingDataSource.HOME && Objects.nonNull(liquibase)) {
+                migrate(shard);
+            }
+            restartIdentity(shard);
+        }
+    }
+
+    private void migrate(int shard) throws Exception {
+        SpringLiquibase migration = new SpringLiquibase();
+        migration.setDataSource(shards.shard(shard));
+        migration.setChangeLog(liquibase.getChangeLog());
+        migration.setContexts(liquibase.getContexts());
+        migration.setResourceLoader(resourceLoader);
+        migration.afterPropertiesSet();
+    }
+
+    private void restartIdentity(int shard) {
+        int size = shards.size();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(shards.shard(shard));
+        Long misplaced = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM person WHERE MOD(id - 1, ?) <> ?", Long.class, size, shard);
+        if (misplaced > 0) {
+            throw new IllegalStateException("В шарде " + shard + " из " + size + " есть " + misplaced
+                    + " строк person с id другого шарда");
+        }
+        // identity только сдвигается вперед: id удаленных строк выше MAX(id) не выдаются повторно
+        long base = jdbcTemplate.queryForObject(IDENTITY_BASE_SQL, Long.class);
+        long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM person", Long.class);
+        long next = Math.max(base, maxId + 1);
+        next += Math.floorMod(shard - (next - 1), size);
+        if (next != base) {
+            jdbcTemplate.execute("ALTER TABLE person ALTER COLUMN id RESTART WITH " + next);
+        }
+        jdbcTemplate.execute("ALTER TABLE person ALTER COLUMN id SET INCREMENT BY " + size);
+    }
+}
@@ -0,0 +1,76 @@
+package com.tcs.vetclinic.config;
+
+import com.tcs.vetclinic.dao.PersonRepository;
+import com.tcs.vetclinic.dao.ShardedPersonRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Включается заданием vetclinic.sharding.shards: таблица person делится по id между базами
+ * vetclinic.sharding.url (%d - номер шарда), остальные таблицы живут в домашнем шарде 0.
+ */
+@Configuration
+@ConditionalOnProperty("vetclinic.sharding.shards")
+public class ShardingConfig {
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(@Value("${vetclinic.sharding.shards}") int shards,
+                                                         @Value("${vetclinic.sharding.url}") String url,
+                                                         @Value("${vetclinic.sharding.username:${spring.datasource.username:sa}}") String username,
+                                                         @Value("${vetclinic.sharding.password:${spring.datasource.password:}}") String password,
+                                                         @Value("${vetclinic.sharding.pool-size:10}") int poolSize,
+                                                         MeterRegistry meterRegistry) {
+        List<DataSource> dataSources = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                    .url(url.formatted(shard))
+                    .username(username)
+                    .password(password)
+                    .build();
+            dataSource.setPoolName("vetclinic-shard-" + shard);
+            dataSource.setMaximumPoolSize(poolSize);
+            dataSource.setMetricsTrackerFactory(new PersonOperationMetricsTrackerFactory(() -> meterRegistry));
+            dataSources.add(dataSource);
+        }
+        return new ShardRoutingDataSource(dataSources);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    public ShardSchemaInitializer shardSchemaInitializer(ShardRoutingDataSource shardRoutingDataSource,
+                                                         ObjectProvider<SpringLiquibase> liquibase,
+                                                         ResourceLoader resourceLoader) {
+        return new ShardSchemaInitializer(shardRoutingDataSource, liquibase.getIfAvailable(), resourceLoader);
+    }
+
+    @Bean
+    @Primary
+    @DependsOn("shardSchemaInitializer")
+    public ShardedPersonRepository shardedPersonRepository(@Qualifier("personRepository") PersonRepository personRepository,
+                                                           ShardRoutingDataSource shardRoutingDataSource,
+                                                           PlatformTransactionManager transactionManager) {
+        return new ShardedPersonRepository(personRepository, shardRoutingDataSource.size(), transactionManager);
+    }
+}
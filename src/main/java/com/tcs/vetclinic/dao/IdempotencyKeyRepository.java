@@ -0,0 +1,29 @@
+package com.tcs.vetclinic.dao;
+
+import com.tcs.vetclinic.domain.idempotency.IdempotencyKey;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.Repository;
+
+import java.util.Optional;
+
+public interface IdempotencyKeyRepository extends Repository<IdempotencyKey, String> {
+    @Query("SELECT * FROM idempotency_key WHERE idem_key = :key AND expires_at > :now")
+    Optional<IdempotencyKey> findActive(String key, long now);
+
+    @Modifying
+    @Query("""
+      INSERT INTO idempotency_key (idem_key, operation, result, expires_at)
+      VALUES (:#{#record.idemKey}, :#{#record.operation}, :#{#record.result}, :#{#record.expiresAt})
+      """
+    )
+    int insert(IdempotencyKey record);
+
+    @Modifying
+    @Query("DELETE FROM idempotency_key WHERE idem_key = :key AND expires_at <= :now")
+    int deleteExpired(String key, long now);
+
+    @Modifying
+    @Query("DELETE FROM idempotency_key WHERE expires_at <= :now")
+    int deleteAllExpired(long now);
+}
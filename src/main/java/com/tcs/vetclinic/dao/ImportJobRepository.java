@@ -0,0 +1,21 @@
+package com.tcs.vetclinic.dao;
+
+import com.tcs.vetclinic.domain.importjob.ImportJob;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Задания читаются из основного пула: их checkpoint-ы пишутся туда же, и с реплики статус отставал бы.
+ */
+public interface ImportJobRepository extends Repository<ImportJob, Long> {
+    ImportJob save(ImportJob job);
+
+    @Query("SELECT * FROM import_job WHERE id = :id")
+    Optional<ImportJob> findJob(long id);
+
+    @Query("SELECT * FROM import_job WHERE status IN ('QUEUED', 'RUNNING') ORDER BY id")
+    List<ImportJob> findUnfinished();
+}
@@ -0,0 +1,39 @@
+package com.tcs.vetclinic.dao;
+
+import com.tcs.vetclinic.domain.change.PersonChange;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Журнал читается из основного пула, а не с реплики: подписчик догоняет ленту до позиции, уже выданной
+ * опросом основной базы, и отставшая реплика оставила бы в его чтении пропуск.
+ */
+public interface PersonChangeRepository extends Repository<PersonChange, Long> {
+    @Query("SELECT * FROM person_change WHERE seq > :after ORDER BY seq LIMIT :limit")
+    List<PersonChange> findAfter(long after, int limit);
+
+    @Query("SELECT * FROM person_change WHERE seq > :after AND seq <= :upTo ORDER BY seq LIMIT :limit")
+    List<PersonChange> findBetween(long after, long upTo, int limit);
+
+    /**
+     * Считает и незакоммиченные строки: seq из пропуска, занятый еще открытой транзакцией, уже виден здесь.
+     */
+    @Transactional(isolation = Isolation.READ_UNCOMMITTED)
+    @Query("SELECT COUNT(*) FROM person_change WHERE seq > :after AND seq < :before")
+    long countWritten(long after, long before);
+
+    @Query("SELECT COALESCE(MAX(seq), 0) FROM person_change")
+    long lastSeq();
+
+    @Query("SELECT COALESCE(MIN(seq), 0) FROM person_change")
+    long firstSeq();
+
+    @Modifying
+    @Query("DELETE FROM person_change WHERE changed_at < :before")
+    int deleteOlderThan(long before);
+}
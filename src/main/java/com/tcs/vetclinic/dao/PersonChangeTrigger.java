@@ -0,0 +1,55 @@
+package com.tcs.vetclinic.dao;
+
+import com.tcs.vetclinic.domain.change.ChangeType;
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+/**
+ * Пишет журнал изменений person_change в той же транзакции, что и INSERT/UPDATE/DELETE в person, поэтому
+ * в журнал попадают все пути записи, включая пакетные вставки и group commit. Для удаления сохраняется только id.
+ */
+public class PersonChangeTrigger implements Trigger {
+    private static final String INSERT_SQL =
+            "INSERT INTO person_change (operation, person_id, name, version, changed_at) VALUES (?, ?, ?, ?, ?)";
+
+    private int idColumn;
+    private int nameColumn;
+    private int versionColumn;
+
+    @Override
+    public void init(Connection connection, String schemaName, String triggerName, String tableName,
+                     boolean before, int type) throws SQLException {
+        try (ResultSet columns = connection.getMetaData().getColumns(null, schemaName, tableName, null)) {
+            while (columns.next()) {
+                int index = columns.getInt("ORDINAL_POSITION") - 1;
+                switch (columns.getString("COLUMN_NAME").toLowerCase()) {
+                    case "id" -> idColumn = index;
+                    case "name" -> nameColumn = index;
+                    case "version" -> versionColumn = index;
+                    default -> {
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void fire(Connection connection, Object[] oldRow, Object[] newRow) throws SQLException {
+        ChangeType type = Objects.isNull(oldRow) ? ChangeType.INSERT
+                : Objects.isNull(newRow) ? ChangeType.DELETE : ChangeType.UPDATE;
+        Object[] row = Objects.isNull(newRow) ? oldRow : newRow;
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+            statement.setString(1, type.name());
+            statement.setObject(2, row[idColumn]);
+            statement.setObject(3, ChangeType.DELETE.equals(type) ? null : row[nameColumn]);
+            statement.setObject(4, ChangeType.DELETE.equals(type) ? null : row[versionColumn]);
+            statement.setLong(5, System.currentTimeMillis());
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.tcs.vetclinic.dao;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ведет счетчик person_count в той же транзакции, что и INSERT/DELETE в person. Счетчик разбит на SLOTS
+ * строк, каждый поток меняет свою случайную строку, чтобы параллельные транзакции не ждали блокировку одной
+ * строки, а пакетная вставка держала блокировку только одной строки и не ловила взаимоблокировку с другой;
+ * итог - SUM(total).
+ */
+public class PersonCountTrigger implements Trigger {
+    public static final int SLOTS = 16;
+    private static final String UPDATE_SQL = "UPDATE person_count SET total = total + ? WHERE slot = ?";
+    private static final ThreadLocal<Integer> SLOT =
+            ThreadLocal.withInitial(() -> ThreadLocalRandom.current().nextInt(SLOTS));
+
+    @Override
+    public void fire(Connection connection, Object[] oldRow, Object[] newRow) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(UPDATE_SQL)) {
+            statement.setLong(1, Objects.isNull(newRow) ? -1 : 1);
+            statement.setInt(2, SLOT.get());
+            statement.executeUpdate();
+        }
+    }
+}
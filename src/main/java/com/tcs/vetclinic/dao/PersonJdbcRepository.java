@@ -0,0 +1,16 @@
+package com.tcs.vetclinic.dao;
+
+import com.tcs.vetclinic.domain.person.Person;
+import com.tcs.vetclinic.domain.sort.SortType;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface PersonJdbcRepository {
+    @Transactional
+    List<Long> insertAll(List<Person> persons, int batchSize);
+
+    @Transactional(readOnly = true)
+    void forEach(long fromId, long toId, SortType sort, int fetchSize, Consumer<Person> consumer);
+}
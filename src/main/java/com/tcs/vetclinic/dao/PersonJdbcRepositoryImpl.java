@@ -0,0 +1,63 @@
+package com.tcs.vetclinic.dao;
+
+import com.tcs.vetclinic.domain.person.Person;
+import com.tcs.vetclinic.domain.sort.SortType;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class PersonJdbcRepositoryImpl implements PersonJdbcRepository {
+    private static final String INSERT_SQL = "INSERT INTO person (name) VALUES (:name)";
+    private static final String[] KEY_COLUMNS = {"ID"};
+    private static final String SCAN_SQL = """
+      SELECT id, name FROM person
+      WHERE id BETWEEN ? AND ?
+      ORDER BY ID %s
+      """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public PersonJdbcRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> insertAll(List<Person> persons, int batchSize) {
+        List<Long> ids = new ArrayList<>(persons.size());
+        for (int from = 0; from < persons.size(); from += batchSize) {
+            List<Person> batch = persons.subList(from, Math.min(from + batchSize, persons.size()));
+            SqlParameterSource[] params = batch.stream()
+                    .map(person -> new MapSqlParameterSource("name", person.getName()))
+                    .toArray(SqlParameterSource[]::new);
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(INSERT_SQL, params, keyHolder, KEY_COLUMNS);
+            for (Map<String, Object> keys : keyHolder.getKeyList()) {
+                ids.add(((Number) keys.get(KEY_COLUMNS[0])).longValue());
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public void forEach(long fromId, long toId, SortType sort, int fetchSize, Consumer<Person> consumer) {
+        String sql = SCAN_SQL.formatted(SortType.DESC.equals(sort) ? "DESC" : "ASC");
+        jdbcTemplate.getJdbcOperations().query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, fromId);
+            statement.setLong(2, toId);
+            return statement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(new Person(resultSet.getLong(1), resultSet.getString(2))));
+    }
+}
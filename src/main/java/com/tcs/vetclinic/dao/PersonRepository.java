@@ -4,15 +4,43 @@ import com.tcs.vetclinic.domain.person.Person;
 import org.springframework.data.jdbc.repository.query.Modifying;
 import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 
-public interface PersonRepository extends CrudRepository<Person, Long> {
+public interface PersonRepository extends CrudRepository<Person, Long>, PersonJdbcRepository {
     @Modifying
-    @Query("UPDATE person p SET p.name = :#{#person.name} WHERE p.id = :id")
-    void updateById(long id, Person person);
+    @Query("UPDATE person p SET p.name = :#{#person.name}, p.version = p.version + 1 WHERE p.id = :id")
+    int updateById(long id, Person person);
 
+    @Modifying
+    @Query("""
+      UPDATE person p SET p.name = :#{#person.name}, p.version = p.version + 1
+      WHERE p.id = :id AND p.version = :version
+      """
+    )
+    int updateByIdAndVersion(long id, long version, Person person);
+
+    @Modifying
+    @Query("DELETE FROM person WHERE id = :id")
+    int removeById(long id);
+
+    @Modifying
+    @Query("DELETE FROM person WHERE id IN (:ids)")
+    int removeAllById(Collection<Long> ids);
+
+    @Query("""
+      SELECT id FROM person
+      WHERE id BETWEEN :fromId AND :toId
+      ORDER BY ID
+      LIMIT :limit
+      """
+    )
+    List<Long> findIdsBetween(long fromId, long toId, int limit);
+
+    @Transactional(readOnly = true)
     @Query("""
       SELECT * FROM person
       ORDER BY ID
@@ -21,6 +49,7 @@ public interface PersonRepository extends CrudRepository<Person, Long> {
     )
     List<Person> findAllAsc(int limit, int offset);
 
+    @Transactional(readOnly = true)
     @Query("""
       SELECT * FROM person
       ORDER BY ID DESC
@@ -28,4 +57,39 @@ public interface PersonRepository extends CrudRepository<Person, Long> {
       """
     )
     List<Person> findAllDesc(int limit, int offset);
+
+    @Transactional(readOnly = true)
+    @Query("""
+      SELECT * FROM person
+      WHERE id > :afterId
+      ORDER BY ID
+      LIMIT :limit
+      """
+    )
+    List<Person> findAllAfter(long afterId, int limit);
+
+    @Transactional(readOnly = true)
+    @Query("""
+      SELECT * FROM person
+      WHERE id < :beforeId
+      ORDER BY ID DESC
+      LIMIT :limit
+      """
+    )
+    List<Person> findAllBefore(long beforeId, int limit);
+
+    @Transactional(readOnly = true)
+    @Query("""
+      SELECT id, name, version FROM person
+      WHERE name_lower >= :prefix AND name_lower < :prefixEnd
+        AND (name_lower, id) > (:afterName, :afterId)
+      ORDER BY name_lower, id
+      LIMIT :limit
+      """
+    )
+    List<Person> searchByNamePrefix(String prefix, String prefixEnd, String afterName, long afterId, int limit);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT COALESCE(SUM(total), 0) FROM person_count")
+    long totalCount();
 }
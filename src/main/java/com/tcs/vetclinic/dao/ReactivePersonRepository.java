@@ -0,0 +1,37 @@
+package com.tcs.vetclinic.dao;
+
+import com.tcs.vetclinic.domain.person.Person;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactivePersonRepository extends R2dbcRepository<Person, Long> {
+    @Modifying
+    @Query("UPDATE person p SET p.name = :name, p.version = p.version + 1 WHERE p.id = :id")
+    Mono<Integer> updateById(long id, String name);
+
+    @Modifying
+    @Query("DELETE FROM person WHERE id = :id")
+    Mono<Integer> removeById(long id);
+
+    @Query("""
+      SELECT * FROM person
+      ORDER BY ID
+      LIMIT :limit OFFSET :offset
+      """
+    )
+    Flux<Person> findAllAsc(int limit, int offset);
+
+    @Query("""
+      SELECT * FROM person
+      ORDER BY ID DESC
+      LIMIT :limit OFFSET :offset
+      """
+    )
+    Flux<Person> findAllDesc(int limit, int offset);
+
+    @Query("SELECT COALESCE(SUM(total), 0) FROM person_count")
+    Mono<Long> totalCount();
+}
@@ -0,0 +1,370 @@
+package com.tcs.vetclinic.dao;
+
+import com.tcs.vetclinic.config.ShardRoutingDataSource;
+import com.tcs.vetclinic.domain.person.Person;
+import com.tcs.vetclinic.domain.sort.SortType;
+import org.springframework.aop.framework.AopInfrastructureBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * PersonRepository поверх N шардов: строка с id лежит в шарде (id - 1) mod N (см. ShardSchemaInitializer).
+ * Операции по id уходят в один шард, новые строки раскладываются по шардам по кругу, а чтения всей таблицы
+ * собираются со всех шардов и сливаются k-way merge-ем в порядке сортировки, так что страницы, курсоры,
+ * поиск и выгрузка возвращают то же, что и одна база.
+ * <p>
+ * Внутри транзакции вызывающего (идемпотентное создание, порция импорта) новые строки пишутся в ту же
+ * транзакцию домашнего шарда вместе с остальными таблицами, а работа с другими шардами идет в отдельных
+ * транзакциях. Сам бин не проксируется: его методы переключают шард до того, как транзакция возьмет соединение.
+ */
+public class ShardedPersonRepository implements PersonRepository, AopInfrastructureBean {
+    private static final Comparator<Person> ASC = Comparator.comparing(Person::getId);
+    private static final Comparator<Person> BY_NAME = Comparator
+            .comparing((Person person) -> person.getName().toLowerCase(Locale.ROOT))
+            .thenComparing(Person::getId);
+
+    private final PersonRepository delegate;
+    private final int shards;
+    private final TransactionTemplate readTemplate;
+    private final TransactionTemplate writeTemplate;
+    private final AtomicLong next = new AtomicLong();
+
+    public ShardedPersonRepository(PersonRepository delegate, int shards, PlatformTransactionManager transactionManager) {
+        this.delegate = delegate;
+        this.shards = shards;
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.writeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTemplate.setReadOnly(true);
+    }
+
+    public static int shardOf(long id, int shards) {
+        return (int) Math.floorMod(id - 1, (long) shards);
+    }
+
+    @Override
+    public <S extends Person> S save(S person) {
+        if (Objects.isNull(person.getId())) {
+            return insert(() -> delegate.save(person));
+        }
+        return onShard(shardOf(person.getId()), false, () -> delegate.save(person));
+    }
+
+    @Override
+    public <S extends Person> Iterable<S> saveAll(Iterable<S> persons) {
+        List<S> saved = new ArrayList<>();
+        persons.forEach(person -> saved.add(save(person)));
+        return saved;
+    }
+
+    @Override
+    public List<Long> insertAll(List<Person> persons, int batchSize) {
+        return insert(() -> delegate.insertAll(persons, batchSize));
+    }
+
+    @Override
+    public Optional<Person> findById(Long id) {
+        return onShard(shardOf(id), true, () -> delegate.findById(id));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return onShard(shardOf(id), true, () -> delegate.existsById(id));
+    }
+
+    @Override
+    public Iterable<Person> findAll() {
+        List<Person> persons = new ArrayList<>();
+        onEveryShard(true, delegate::findAll).forEach(part -> part.forEach(persons::add));
+        return persons;
+    }
+
+    @Override
+    public Iterable<Person> findAllById(Iterable<Long> ids) {
+        List<Person> persons = new ArrayList<>();
+        byShard(ids).forEach((target, part) ->
+                onShard(target, true, () -> delegate.findAllById(part)).forEach(persons::add));
+        return persons;
+    }
+
+    @Override
+    public long count() {
+        return onEveryShard(true, delegate::count).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public long totalCount() {
+        return onEveryShard(true, delegate::totalCount).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        onShard(shardOf(id), false, () -> {
+            delegate.deleteById(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void delete(Person person) {
+        onShard(shardOf(person.getId()), false, () -> {
+            delegate.delete(person);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        byShard(ids).forEach((target, part) -> onShard(target, false, () -> {
+            delegate.deleteAllById(part);
+            return null;
+        }));
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Person> persons) {
+        List<Long> ids = new ArrayList<>();
+        persons.forEach(person -> ids.add(person.getId()));
+        deleteAllById(ids);
+    }
+
+    @Override
+    public void deleteAll() {
+        onEveryShard(false, () -> {
+            delegate.deleteAll();
+            return null;
+        });
+    }
+
+    @Override
+    public int updateById(long id, Person person) {
+        return onShard(shardOf(id), false, () -> delegate.updateById(id, person));
+    }
+
+    @Override
+    public int updateByIdAndVersion(long id, long version, Person person) {
+        return onShard(shardOf(id), false, () -> delegate.updateByIdAndVersion(id, version, person));
+    }
+
+    @Override
+    public int removeById(long id) {
+        return onShard(shardOf(id), false, () -> delegate.removeById(id));
+    }
+
+    @Override
+    public int removeAllById(Collection<Long> ids) {
+        int removed = 0;
+        for (Map.Entry<Integer, List<Long>> part : byShard(ids).entrySet()) {
+            removed += onShard(part.getKey(), false, () -> delegate.removeAllById(part.getValue()));
+        }
+        return removed;
+    }
+
+    @Override
+    public List<Long> findIdsBetween(long fromId, long toId, int limit) {
+        return merge(onEveryShard(true, () -> delegate.findIdsBetween(fromId, toId, limit)),
+                Comparator.naturalOrder(), 0, limit);
+    }
+
+    /**
+     * Страница с offset: каждый шард отдает первые offset + limit строк, после слияния первые offset
+     * пропускаются. Как и OFFSET в одной базе, стоимость растет с номером страницы.
+     */
+    @Override
+    public List<Person> findAllAsc(int limit, int offset) {
+        return merge(onEveryShard(true, () -> delegate.findAllAsc(limit + offset, 0)), ASC, offset, limit);
+    }
+
+    @Override
+    public List<Person> findAllDesc(int limit, int offset) {
+        return merge(onEveryShard(true, () -> delegate.findAllDesc(limit + offset, 0)), ASC.reversed(), offset, limit);
+    }
+
+    @Override
+    public List<Person> findAllAfter(long afterId, int limit) {
+        return merge(onEveryShard(true, () -> delegate.findAllAfter(afterId, limit)), ASC, 0, limit);
+    }
+
+    @Override
+    public List<Person> findAllBefore(long beforeId, int limit) {
+        return merge(onEveryShard(true, () -> delegate.findAllBefore(beforeId, limit)), ASC.reversed(), 0, limit);
+    }
+
+    @Override
+    public List<Person> searchByNamePrefix(String prefix, String prefixEnd, String afterName, long afterId, int limit) {
+        return merge(onEveryShard(true, () -> delegate.searchByNamePrefix(prefix, prefixEnd, afterName, afterId, limit)),
+                BY_NAME, 0, limit);
+    }
+
+    /**
+     * Потоковое слияние: из каждого шарда читаются страницы по fetchSize курсором по id, в памяти
+     * держится не больше страницы на шард.
+     */
+    @Override
+    public void forEach(long fromId, long toId, SortType sort, int fetchSize, Consumer<Person> consumer) {
+        boolean desc = SortType.DESC.equals(sort);
+        PriorityQueue<ShardCursor> heads = new PriorityQueue<>(Comparator.comparing(ShardCursor::head,
+                desc ? ASC.reversed() : ASC));
+        for (int target = 0; target < shards; target++) {
+            ShardCursor cursor = new ShardCursor(target, desc, desc ? toId : fromId, fetchSize);
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        while (!heads.isEmpty()) {
+            ShardCursor cursor = heads.poll();
+            Person person = cursor.head();
+            if (desc ? person.getId() < fromId : person.getId() > toId) {
+                continue;
+            }
+            consumer.accept(person);
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+    }
+
+    static <T> List<T> merge(List<List<T>> parts, Comparator<? super T> order, int skip, int limit) {
+        PriorityQueue<PeekingIterator<T>> heads = new PriorityQueue<>(Comparator.comparing(PeekingIterator::peek, order));
+        for (List<T> part : parts) {
+            if (!part.isEmpty()) {
+                heads.add(new PeekingIterator<>(part.iterator()));
+            }
+        }
+        List<T> merged = new ArrayList<>(Math.max(limit, 0));
+        for (int position = 0; !heads.isEmpty() && merged.size() < limit; position++) {
+            PeekingIterator<T> head = heads.poll();
+            T item = head.next();
+            if (position >= skip) {
+                merged.add(item);
+            }
+            if (head.hasNext()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    private int shardOf(long id) {
+        return shardOf(id, shards);
+    }
+
+    /**
+     * Новая строка: в транзакции вызывающего - в ее шард (домашний), иначе - в следующий шард по кругу.
+     */
+    private <T> T insert(Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        return ShardRoutingDataSource.on((int) Math.floorMod(next.getAndIncrement(), (long) shards), action);
+    }
+
+    /**
+     * Работа в шарде target: в транзакции вызывающего домашний шард идет в ней же, остальные - в отдельной.
+     */
+    private <T> T onShard(int target, boolean readOnly, Supplier<T> action) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || target == ShardRoutingDataSource.HOME) {
+            return ShardRoutingDataSource.on(target, action);
+        }
+        TransactionTemplate template = readOnly ? readTemplate : writeTemplate;
+        return ShardRoutingDataSource.on(target, () -> template.execute(status -> action.get()));
+    }
+
+    private <T> List<T> onEveryShard(boolean readOnly, Supplier<T> action) {
+        List<T> results = new ArrayList<>(shards);
+        for (int target = 0; target < shards; target++) {
+            results.add(onShard(target, readOnly, action));
+        }
+        return results;
+    }
+
+    private Map<Integer, List<Long>> byShard(Iterable<? extends Long> ids) {
+        Map<Integer, List<Long>> parts = new HashMap<>();
+        for (Long id : ids) {
+            parts.computeIfAbsent(shardOf(id), target -> new ArrayList<>()).add(id);
+        }
+        return parts;
+    }
+
+    private class ShardCursor {
+        private final int target;
+        private final boolean desc;
+        private final int pageSize;
+        private long position;
+        private Iterator<Person> page = Collections.emptyIterator();
+        private boolean exhausted;
+        private Person head;
+
+        ShardCursor(int target, boolean desc, long from, int pageSize) {
+            this.target = target;
+            this.desc = desc;
+            this.pageSize = Math.max(pageSize, 1);
+            // findAllAfter/findAllBefore не включают границу
+            this.position = desc ? (from == Long.MAX_VALUE ? from : from + 1) : (from == Long.MIN_VALUE ? from : from - 1);
+        }
+
+        Person head() {
+            return head;
+        }
+
+        boolean advance() {
+            if (!page.hasNext() && !exhausted) {
+                List<Person> persons = onShard(target, true, () -> desc
+                        ? delegate.findAllBefore(position, pageSize)
+                        : delegate.findAllAfter(position, pageSize));
+                exhausted = persons.size() < pageSize;
+                page = persons.iterator();
+            }
+            if (!page.hasNext()) {
+                return false;
+            }
+            head = page.next();
+            position = head.getId();
+            return true;
+        }
+    }
+
+    private static class PeekingIterator<T> {
+        private final Iterator<T> iterator;
+        private T next;
+
+        PeekingIterator(Iterator<T> iterator) {
+            this.iterator = iterator;
+            this.next = iterator.next();
+        }
+
+        T peek() {
+            return next;
+        }
+
+        T next() {
+            T current = next;
+            next = iterator.hasNext() ? iterator.next() : null;
+            return current;
+        }
+
+        boolean hasNext() {
+            return Objects.nonNull(next);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package com.tcs.vetclinic.domain.batch;
+
+public record BatchItemError(int index, String message) {
+}
@@ -0,0 +1,9 @@
+package com.tcs.vetclinic.domain.batch;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record BatchResult(List<Long> ids, List<BatchItemError> errors) {
+}
@@ -0,0 +1,13 @@
+package com.tcs.vetclinic.domain.change;
+
+import java.util.List;
+
+/**
+ * Ответ long-poll: изменения по порядку seq и позиция next, с которой продолжать чтение (параметр after).
+ */
+public record ChangeBatch(long next, List<PersonChange> changes) {
+
+    public static ChangeBatch of(long position, List<PersonChange> changes) {
+        return new ChangeBatch(changes.isEmpty() ? position : changes.get(changes.size() - 1).seq(), changes);
+    }
+}
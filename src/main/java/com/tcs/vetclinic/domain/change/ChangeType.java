@@ -0,0 +1,7 @@
+package com.tcs.vetclinic.domain.change;
+
+public enum ChangeType {
+    INSERT,
+    UPDATE,
+    DELETE
+}
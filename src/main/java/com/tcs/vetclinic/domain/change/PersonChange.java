@@ -0,0 +1,12 @@
+package com.tcs.vetclinic.domain.change;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.annotation.Id;
+
+/**
+ * Запись журнала изменений: seq растет с каждой записью и служит позицией для продолжения чтения.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PersonChange(@Id long seq, ChangeType operation, long personId, String name, Long version,
+                           long changedAt) {
+}
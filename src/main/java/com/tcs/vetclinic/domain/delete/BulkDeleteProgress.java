@@ -0,0 +1,8 @@
+package com.tcs.vetclinic.domain.delete;
+
+/**
+ * Ход массового удаления после очередной закоммиченной порции: число порций, удаленных строк
+ * и последний обработанный id. done = true только в итоговой записи.
+ */
+public record BulkDeleteProgress(int chunks, long deleted, Long lastId, boolean done) {
+}
@@ -0,0 +1,34 @@
+package com.tcs.vetclinic.domain.idempotency;
+
+import org.springframework.data.annotation.Id;
+
+public class IdempotencyKey {
+    @Id
+    private final String idemKey;
+    private final String operation;
+    private final String result;
+    private final long expiresAt;
+
+    public IdempotencyKey(String idemKey, String operation, String result, long expiresAt) {
+        this.idemKey = idemKey;
+        this.operation = operation;
+        this.result = result;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getIdemKey() {
+        return idemKey;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,21 @@
+package com.tcs.vetclinic.domain.importjob;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.annotation.Id;
+
+/**
+ * Задание импорта и его checkpoint: bytesRead - смещение в файле после последней закоммиченной порции,
+ * счетчики строк сохраняются в той же транзакции, что и вставка порции. rowsPerSecond и etaSeconds
+ * считаются с последнего запуска задания.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ImportJob(@Id long id, String fileName, ImportJobStatus status, long fileSize, long bytesRead,
+                        long rowsRead, long rowsImported, long rowsFailed, Double rowsPerSecond, Long etaSeconds,
+                        String lastRowError, String error, long createdAt, long updatedAt, Long finishedAt) {
+
+    public ImportJob withStatus(ImportJobStatus status, String error, long now) {
+        return new ImportJob(id, fileName, status, fileSize, bytesRead, rowsRead, rowsImported, rowsFailed,
+                rowsPerSecond, status == ImportJobStatus.COMPLETED ? Long.valueOf(0) : etaSeconds, lastRowError, error,
+                createdAt, now, status == ImportJobStatus.COMPLETED || status == ImportJobStatus.FAILED ? now : null);
+    }
+}
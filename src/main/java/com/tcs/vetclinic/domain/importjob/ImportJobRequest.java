@@ -0,0 +1,7 @@
+package com.tcs.vetclinic.domain.importjob;
+
+/**
+ * Имя CSV-файла внутри vetclinic.import.directory.
+ */
+public record ImportJobRequest(String file) {
+}
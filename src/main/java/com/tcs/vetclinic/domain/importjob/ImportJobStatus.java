@@ -0,0 +1,8 @@
+package com.tcs.vetclinic.domain.importjob;
+
+public enum ImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
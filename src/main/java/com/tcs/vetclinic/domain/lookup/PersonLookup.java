@@ -0,0 +1,13 @@
+package com.tcs.vetclinic.domain.lookup;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.tcs.vetclinic.domain.person.Person;
+
+import java.util.List;
+
+/**
+ * Клиенты в порядке запрошенных id: на месте ненайденного id стоит null, а сам id попадает в missing.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record PersonLookup(List<Person> persons, List<Long> missing) {
+}
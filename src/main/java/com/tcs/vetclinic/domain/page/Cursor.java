@@ -0,0 +1,43 @@
+package com.tcs.vetclinic.domain.page;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public final class Cursor {
+    private static final String PREFIX = "id:";
+    private static final String NAME_PREFIX = "name:";
+
+    private Cursor() {
+    }
+
+    public static String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decode(String token) throws IllegalArgumentException {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        if (!raw.startsWith(PREFIX)) {
+            throw new IllegalArgumentException("Некорректный курсор: " + token);
+        }
+        return Long.parseLong(raw.substring(PREFIX.length()));
+    }
+
+    public static String encode(String name, long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((NAME_PREFIX + id + ":" + name).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static NamePosition decodeName(String token) throws IllegalArgumentException {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separator = raw.indexOf(':', NAME_PREFIX.length());
+        if (!raw.startsWith(NAME_PREFIX) || separator < 0) {
+            throw new IllegalArgumentException("Некорректный курсор: " + token);
+        }
+        long id = Long.parseLong(raw.substring(NAME_PREFIX.length(), separator));
+        return new NamePosition(raw.substring(separator + 1), id);
+    }
+
+    public record NamePosition(String name, long id) {
+    }
+}
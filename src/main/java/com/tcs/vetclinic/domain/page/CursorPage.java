@@ -0,0 +1,6 @@
+package com.tcs.vetclinic.domain.page;
+
+import java.util.List;
+
+public record CursorPage<T>(List<T> items, String next, String previous) {
+}
@@ -1,11 +1,13 @@
 package com.tcs.vetclinic.domain.person;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 
 import java.util.Objects;
 
@@ -18,12 +20,21 @@ public class Person {
     @NotNull
     @Size(min = 3, max = 255)
     private String name;
+    @Version
+    @JsonIgnore
+    private Long version;
 
     public Person(Long id, String name) {
         this.id = id;
         this.name = name;
     }
 
+    public Person(Long id, String name, Long version) {
+        this.id = id;
+        this.name = name;
+        this.version = version;
+    }
+
     public Person(String name) {
         this.id = null;
         this.name = name;
@@ -60,4 +71,8 @@ public class Person {
     public String getName() {
         return this.name;
     }
+
+    public Long getVersion() {
+        return this.version;
+    }
 }
@@ -0,0 +1,161 @@
+package com.tcs.vetclinic.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tcs.vetclinic.dao.IdempotencyKeyRepository;
+import com.tcs.vetclinic.domain.idempotency.IdempotencyKey;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Хранилище Idempotency-Key: ключ -> ответ первого запроса, в таблице idempotency_key с TTL и в кэше перед ней.
+ * Действие и запись ключа выполняются в одной транзакции, одинаковые ключи внутри процесса сериализуются
+ * блокировкой, между процессами - первичным ключом таблицы.
+ */
+@Component
+public class IdempotencyStore {
+    public static final String METRIC = "vetclinic.person.idempotency";
+    public static final int MAX_KEY_LENGTH = 255;
+    private static final int LOCK_STRIPES = 64;
+
+    private final IdempotencyKeyRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Clock clock;
+    private final Cache<String, IdempotencyKey> cache;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final MeterRegistry meterRegistry;
+
+    public IdempotencyStore(IdempotencyKeyRepository repository,
+                            TransactionTemplate transactionTemplate,
+                            ObjectMapper objectMapper,
+                            @Value("${vetclinic.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${vetclinic.idempotency.cache-size:10000}") long cacheSize,
+                            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.clock = Clock.systemUTC();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new RecordExpiry(clock))
+                .build();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T execute(String key, String operation, Class<T> type, Supplier<T> action)
+            throws InvalidIdempotencyKeyError {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyError("Idempotency-Key должен содержать от 1 до " + MAX_KEY_LENGTH + " символов");
+        }
+        IdempotencyKey record = cache.getIfPresent(key);
+        if (Objects.isNull(record)) {
+            ReentrantLock lock = locks[Math.floorMod(key.hashCode(), LOCK_STRIPES)];
+            lock.lock();
+            try {
+                record = load(key);
+                if (Objects.isNull(record)) {
+                    record = store(key, operation, action);
+                    counter(operation, "stored").increment();
+                } else {
+                    counter(operation, "replayed").increment();
+                }
+                cache.put(key, record);
+            } finally {
+                lock.unlock();
+            }
+        } else {
+            counter(operation, "replayed").increment();
+        }
+
+        if (!operation.equals(record.getOperation())) {
+            throw new InvalidIdempotencyKeyError("Idempotency-Key уже использован для другой операции: " + record.getOperation());
+        }
+        return read(record.getResult(), type);
+    }
+
+    @Scheduled(fixedDelayString = "${vetclinic.idempotency.cleanup-interval:PT10M}")
+    public void deleteExpired() {
+        repository.deleteAllExpired(clock.millis());
+    }
+
+    private IdempotencyKey load(String key) {
+        IdempotencyKey record = cache.getIfPresent(key);
+        return Objects.nonNull(record) ? record : repository.findActive(key, clock.millis()).orElse(null);
+    }
+
+    private <T> IdempotencyKey store(String key, String operation, Supplier<T> action) {
+        try {
+            return transactionTemplate.execute(status -> {
+                long now = clock.millis();
+                IdempotencyKey record = new IdempotencyKey(key, operation, write(action.get()), now + ttl.toMillis());
+                repository.deleteExpired(key, now);
+                repository.insert(record);
+                return record;
+            });
+        } catch (DuplicateKeyException e) {
+            // тот же ключ параллельно сохранил другой экземпляр приложения, наша транзакция откачена
+            return repository.findActive(key, clock.millis()).orElseThrow(() -> e);
+        }
+    }
+
+    private Counter counter(String operation, String result) {
+        return Counter.builder(METRIC)
+                .tag("operation", operation)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private String write(Object result) {
+        try {
+            return objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private <T> T read(String result, Class<T> type) {
+        try {
+            return objectMapper.readValue(result, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record RecordExpiry(Clock clock) implements Expiry<String, IdempotencyKey> {
+        @Override
+        public long expireAfterCreate(String key, IdempotencyKey record, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, record.getExpiresAt() - clock.millis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, IdempotencyKey record, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, record, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, IdempotencyKey record, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.tcs.vetclinic.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+public class IdempotentBatchTooLargeError extends RuntimeException {
+    public IdempotentBatchTooLargeError(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.tcs.vetclinic.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ImportJobNotFoundError extends RuntimeException {
+    public ImportJobNotFoundError(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.tcs.vetclinic.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBulkDeleteError extends RuntimeException {
+    public InvalidBulkDeleteError(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.tcs.vetclinic.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorError extends RuntimeException {
+    public InvalidCursorError(String message) {
+        super(message);
+    }
+
+}
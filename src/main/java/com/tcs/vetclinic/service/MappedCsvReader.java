@@ -0,0 +1,132 @@
+package com.tcs.vetclinic.service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Чтение записей CSV из файла через окна FileChannel.map размером mapSize. Здесь только ищутся границы
+ * записей (перевод строки вне кавычек); декодирование и разбор полей - в fields, чтобы их можно было
+ * выполнять параллельно. Запись, не поместившаяся в окно, перечитывается из нового окна с ее начала.
+ */
+class MappedCsvReader {
+    private final FileChannel channel;
+    private final long size;
+    private final long mapSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+
+    MappedCsvReader(FileChannel channel, long mapSize) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.mapSize = mapSize;
+    }
+
+    long position() {
+        return position;
+    }
+
+    void seek(long position) {
+        this.position = position;
+        this.window = null;
+    }
+
+    List<byte[]> next(int limit) throws IOException {
+        List<byte[]> records = new ArrayList<>(limit);
+        while (records.size() < limit) {
+            byte[] record = next();
+            if (Objects.isNull(record)) {
+                break;
+            }
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * Следующая непустая запись без перевода строки или null в конце файла.
+     */
+    byte[] next() throws IOException {
+        while (position < size) {
+            if (Objects.isNull(window) || position >= windowStart + window.limit()) {
+                map();
+            }
+            int start = (int) (position - windowStart);
+            int end = recordEnd(start);
+            if (end < 0) {
+                if (windowStart + window.limit() < size) {
+                    if (start == 0) {
+                        throw new IOException("Запись с позиции " + position + " длиннее " + mapSize + " байт");
+                    }
+                    map();
+                    continue;
+                }
+                end = window.limit();
+            }
+            position = windowStart + Math.min(end + 1, window.limit());
+            int length = end - start;
+            if (length > 0 && window.get(end - 1) == '\r') {
+                length--;
+            }
+            if (length > 0) {
+                byte[] record = new byte[length];
+                window.get(start, record);
+                return record;
+            }
+        }
+        return null;
+    }
+
+    private void map() throws IOException {
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(mapSize, size - position));
+    }
+
+    private int recordEnd(int start) {
+        boolean quoted = false;
+        for (int i = start; i < window.limit(); i++) {
+            byte b = window.get(i);
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (b == '\n' && !quoted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Поля записи по RFC 4180: поле в кавычках может содержать запятые и переводы строк, "" внутри - кавычка.
+     */
+    static List<String> fields(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
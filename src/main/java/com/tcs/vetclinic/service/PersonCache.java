@@ -0,0 +1,66 @@
+package com.tcs.vetclinic.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tcs.vetclinic.domain.person.Person;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+@Component
+public class PersonCache {
+    public static final String CACHE_NAME = "person";
+
+    private final Cache<Long, Optional<Person>> cache;
+
+    public PersonCache(@Value("${vetclinic.cache.person.max-size:10000}") long maxSize,
+                       @Value("${vetclinic.cache.person.ttl:30s}") Duration ttl,
+                       @Value("${vetclinic.cache.person.negative-ttl:2s}") Duration negativeTtl,
+                       MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new FoundOrMissingExpiry(ttl, negativeTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public Optional<Person> get(long id, Function<Long, Optional<Person>> loader) {
+        return cache.get(id, loader);
+    }
+
+    public Optional<Person> getIfPresent(long id) {
+        return cache.getIfPresent(id);
+    }
+
+    public void put(Person person) {
+        cache.put(person.getId(), Optional.of(person));
+    }
+
+    public void invalidate(long id) {
+        cache.invalidate(id);
+    }
+
+    private record FoundOrMissingExpiry(Duration ttl, Duration negativeTtl) implements Expiry<Long, Optional<Person>> {
+        @Override
+        public long expireAfterCreate(Long id, Optional<Person> person, long currentTime) {
+            return (person.isPresent() ? ttl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long id, Optional<Person> person, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, person, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long id, Optional<Person> person, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.tcs.vetclinic.service;
+
+import com.tcs.vetclinic.dao.PersonChangeRepository;
+import com.tcs.vetclinic.domain.change.ChangeBatch;
+import com.tcs.vetclinic.domain.change.PersonChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Лента изменений person поверх журнала person_change. Один фоновый опрос читает новые записи и раздает их
+ * всем подписчикам, поэтому число запросов к базе не зависит от числа потребителей.
+ * <p>
+ * Подписчик сначала догоняет ленту чтением журнала со своей позиции, затем получает пакеты опроса через
+ * ограниченный буфер. Если буфер переполнен, подписчик не теряет изменения и не копит память: буфер
+ * сбрасывается, и подписчик снова догоняет ленту из журнала в своем темпе.
+ * <p>
+ * seq выдается при вставке, а видна запись после коммита, поэтому опрос выдает только непрерывный префикс seq.
+ * Пропуск пропускается не раньше gap-timeout и только если в нем нет и незакоммиченных строк, то есть занявшие
+ * его транзакции откатились: изменения долгой транзакции ждут ее коммита сколько угодно.
+ * <p>
+ * При шардировании person (vetclinic.sharding.shards больше 1) у каждого шарда свой журнал, а опрос читает
+ * только домашний, поэтому лента отключена и отвечает 503, а не отдает молча часть изменений.
+ */
+@Component
+public class PersonChangeFeed {
+    public static final String METRIC = "vetclinic.person.changes";
+
+    private final PersonChangeRepository repository;
+    private final int batchSize;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long gapTimeoutNanos;
+    private final Duration maxPollTimeout;
+    private final Duration retention;
+    private final boolean enabled;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger senderThreads = new AtomicInteger();
+    private final ExecutorService senders = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "person-change-feed-" + senderThreads.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter delivered;
+    private final Counter overflows;
+    private volatile long head;
+    private long gapSince;
+
+    public PersonChangeFeed(PersonChangeRepository repository,
+                            @Value("${vetclinic.changes.batch-size:100}") int batchSize,
+                            @Value("${vetclinic.changes.buffer-size:16}") int bufferSize,
+                            @Value("${vetclinic.changes.max-subscribers:100}") int maxSubscribers,
+                            @Value("${vetclinic.changes.gap-timeout:10s}") Duration gapTimeout,
+                            @Value("${vetclinic.changes.max-poll-timeout:30s}") Duration maxPollTimeout,
+                            @Value("${vetclinic.changes.retention:7d}") Duration retention,
+                            @Value("${vetclinic.sharding.shards:1}") int shards,
+                            MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.batchSize = batchSize;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.gapTimeoutNanos = gapTimeout.toNanos();
+        this.maxPollTimeout = maxPollTimeout;
+        this.retention = retention;
+        this.enabled = shards <= 1;
+        this.delivered = Counter.builder(METRIC + ".delivered")
+                .register(meterRegistry);
+        this.overflows = Counter.builder(METRIC + ".overflow")
+                .register(meterRegistry);
+        Gauge.builder(METRIC + ".subscribers", this, feed -> feed.subscriptions.size() + feed.waiters.size())
+                .register(meterRegistry);
+        Gauge.builder(METRIC + ".head", this, PersonChangeFeed::head)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            head = repository.lastSeq();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscriptions.forEach(Subscription::cancel);
+        senders.shutdownNow();
+    }
+
+    public long head() {
+        return head;
+    }
+
+    /**
+     * SSE-подписка с позиции after (без after - с текущей головы ленты). Пакеты передаются в sink по порядку
+     * seq из отдельного потока; ошибка sink отменяет подписку.
+     */
+    public Subscription subscribe(Long after, ChangeSink sink)
+            throws PersonChangesExpiredError, PersonChangeFeedFullError, PersonChangeFeedDisabledError {
+        checkEnabled();
+        long position = position(after);
+        if (subscriptions.size() + waiters.size() >= maxSubscribers) {
+            throw new PersonChangeFeedFullError("Превышено число подписчиков ленты изменений, повторите запрос позже");
+        }
+        Subscription subscription = new Subscription(position, sink);
+        subscriptions.add(subscription);
+        subscription.schedule();
+        return subscription;
+    }
+
+    /**
+     * Long-poll с позиции after (без after - с текущей головы ленты): сразу возвращает до limit изменений,
+     * а если их нет - ждет новых до timeout и по истечении отдает пустой пакет.
+     */
+    public DeferredResult<ChangeBatch> poll(Long after, int limit, Duration timeout)
+            throws PersonChangesExpiredError, PersonChangeFeedFullError, PersonChangeFeedDisabledError {
+        checkEnabled();
+        long position = position(after);
+        int size = Math.max(1, Math.min(limit, batchSize));
+        Duration wait = timeout.compareTo(maxPollTimeout) > 0 ? maxPollTimeout : timeout;
+        DeferredResult<ChangeBatch> result = new DeferredResult<>(wait.toMillis(), ChangeBatch.of(position, List.of()));
+        List<PersonChange> changes = repository.findBetween(position, head, size);
+        if (!changes.isEmpty() || wait.toMillis() <= 0) {
+            result.setResult(ChangeBatch.of(position, changes));
+            return result;
+        }
+        if (subscriptions.size() + waiters.size() >= maxSubscribers) {
+            throw new PersonChangeFeedFullError("Превышено число подписчиков ленты изменений, повторите запрос позже");
+        }
+
+        Waiter waiter = new Waiter(position, size, result);
+        waiters.add(waiter);
+        result.onCompletion(() -> waiters.remove(waiter));
+        // опрос мог выдать новые записи между чтением журнала и регистрацией
+        if (head > position) {
+            changes = repository.findBetween(position, head, size);
+            if (!changes.isEmpty()) {
+                result.setResult(ChangeBatch.of(position, changes));
+            }
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${vetclinic.changes.poll-interval:PT0.1S}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        List<PersonChange> changes;
+        List<PersonChange> settled;
+        do {
+            changes = repository.findAfter(head, batchSize);
+            settled = settled(changes);
+            if (settled.isEmpty()) {
+                return;
+            }
+            head = settled.get(settled.size() - 1).seq();
+            for (Subscription subscription : subscriptions) {
+                subscription.offer(settled);
+            }
+            for (Waiter waiter : waiters) {
+                waiter.offer(settled);
+            }
+        } while (settled.size() == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${vetclinic.changes.cleanup-interval:PT1H}")
+    public void deleteExpired() {
+        if (!enabled) {
+            return;
+        }
+        repository.deleteOlderThan(System.currentTimeMillis() - retention.toMillis());
+    }
+
+    private void checkEnabled() throws PersonChangeFeedDisabledError {
+        if (!enabled) {
+            throw new PersonChangeFeedDisabledError("Лента изменений недоступна при шардировании person");
+        }
+    }
+
+    private long position(Long after) throws PersonChangesExpiredError {
+        if (Objects.isNull(after)) {
+            return head;
+        }
+        long first = repository.firstSeq();
+        if (first > 0 && after < first - 1) {
+            throw new PersonChangesExpiredError("Изменения после seq " + after + " уже удалены из журнала");
+        }
+        return after;
+    }
+
+    private List<PersonChange> settled(List<PersonChange> changes) {
+        int contiguous = 0;
+        while (contiguous < changes.size() && changes.get(contiguous).seq() == head + contiguous + 1) {
+            contiguous++;
+        }
+        if (contiguous > 0 || changes.isEmpty()) {
+            gapSince = 0;
+            return changes.subList(0, contiguous);
+        }
+        long now = System.nanoTime();
+        if (gapSince == 0) {
+            gapSince = now;
+        }
+        if (now - gapSince < gapTimeoutNanos || repository.countWritten(head, changes.get(0).seq()) > 0) {
+            return List.of();
+        }
+        // в пропуске нет ни одной строки: занявшие его транзакции откатились, выдаем записи до следующего пропуска
+        gapSince = 0;
+        int run = 1;
+        while (run < changes.size() && changes.get(run).seq() == changes.get(0).seq() + run) {
+            run++;
+        }
+        return changes.subList(0, run);
+    }
+
+    @FunctionalInterface
+    public interface ChangeSink {
+        void send(List<PersonChange> changes) throws IOException;
+    }
+
+    public final class Subscription {
+        private final BlockingQueue<List<PersonChange>> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final ChangeSink sink;
+        private volatile boolean lagging = true;
+        private volatile boolean cancelled;
+        private long position;
+
+        private Subscription(long position, ChangeSink sink) {
+            this.position = position;
+            this.sink = sink;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            buffer.clear();
+        }
+
+        private void offer(List<PersonChange> changes) {
+            if (!buffer.offer(changes)) {
+                overflows.increment();
+                lagging = true;
+                buffer.clear();
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!cancelled && scheduled.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!cancelled) {
+                    if (lagging) {
+                        lagging = false;
+                        buffer.clear();
+                        catchUp();
+                        continue;
+                    }
+                    List<PersonChange> changes = buffer.poll();
+                    if (Objects.isNull(changes)) {
+                        break;
+                    }
+                    send(changes);
+                }
+            } catch (IOException | RuntimeException e) {
+                cancel();
+            } finally {
+                scheduled.set(false);
+            }
+            if (!cancelled && (lagging || !buffer.isEmpty())) {
+                schedule();
+            }
+        }
+
+        private void catchUp() throws IOException {
+            while (!cancelled) {
+                List<PersonChange> changes = repository.findBetween(position, head, batchSize);
+                send(changes);
+                if (changes.size() < batchSize) {
+                    return;
+                }
+            }
+        }
+
+        private void send(List<PersonChange> changes) throws IOException {
+            int skip = 0;
+            while (skip < changes.size() && changes.get(skip).seq() <= position) {
+                skip++;
+            }
+            if (skip == changes.size()) {
+                return;
+            }
+            List<PersonChange> fresh = changes.subList(skip, changes.size());
+            sink.send(fresh);
+            position = fresh.get(fresh.size() - 1).seq();
+            delivered.increment(fresh.size());
+        }
+    }
+
+    private final class Waiter {
+        private final long position;
+        private final int limit;
+        private final DeferredResult<ChangeBatch> result;
+
+        private Waiter(long position, int limit, DeferredResult<ChangeBatch> result) {
+            this.position = position;
+            this.limit = limit;
+            this.result = result;
+        }
+
+        private void offer(List<PersonChange> changes) {
+            List<PersonChange> fresh = changes.stream()
+                    .filter(change -> change.seq() > position)
+                    .limit(limit)
+                    .toList();
+            if (!fresh.isEmpty() && result.setResult(ChangeBatch.of(position, fresh))) {
+                delivered.increment(fresh.size());
+                waiters.remove(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.tcs.vetclinic.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PersonChangeFeedFullError extends RuntimeException {
+    public PersonChangeFeedFullError(String message) {
+        super(message);
+    }
+
+}
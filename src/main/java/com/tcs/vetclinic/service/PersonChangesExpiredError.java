@@ -0,0 +1,12 @@
+package com.tcs.vetclinic.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GONE)
+public class PersonChangesExpiredError extends RuntimeException {
+    public PersonChangesExpiredError(String message) {
+        super(message);
+    }
+
+}
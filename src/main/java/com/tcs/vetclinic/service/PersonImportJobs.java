@@ -0,0 +1,287 @@
+package com.tcs.vetclinic.service;
+
+import com.tcs.vetclinic.dao.ImportJobRepository;
+import com.tcs.vetclinic.dao.PersonRepository;
+import com.tcs.vetclinic.domain.importjob.ImportJob;
+import com.tcs.vetclinic.domain.importjob.ImportJobStatus;
+import com.tcs.vetclinic.domain.person.Person;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Фоновый импорт клиентов из CSV-файлов каталога vetclinic.import.directory. Файл читается окнами mmap,
+ * порции по chunk-size записей разбираются и проверяются ограничениями Person параллельно, валидные
+ * вставляются пакетами insertAll. Вставка порции и checkpoint задания коммитятся вместе, поэтому задание,
+ * прерванное падением или остановкой приложения, при следующем старте продолжается с checkpoint-а без
+ * повторов и пропусков.
+ */
+@Component
+public class PersonImportJobs {
+    public static final String METRIC = "vetclinic.person.import";
+    private static final String NAME_COLUMN = "name";
+    private static final int MAX_ERROR_LENGTH = 4000;
+
+    private final ImportJobRepository importJobRepository;
+    private final PersonRepository personRepository;
+    private final PersonCache personCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final Path directory;
+    private final int chunkSize;
+    private final long mapSize;
+    private final int jdbcBatchSize;
+    private final ExecutorService jobs;
+    private final ForkJoinPool validation;
+    private final Map<Long, Progress> running = new ConcurrentHashMap<>();
+    private final Counter imported;
+    private final Counter failed;
+    private volatile boolean stopping;
+
+    public PersonImportJobs(ImportJobRepository importJobRepository,
+                            PersonRepository personRepository,
+                            PersonCache personCache,
+                            TransactionTemplate transactionTemplate,
+                            Validator validator,
+                            @Value("${vetclinic.import.directory:import}") Path directory,
+                            @Value("${vetclinic.import.chunk-size:10000}") int chunkSize,
+                            @Value("${vetclinic.import.map-size:64MB}") DataSize mapSize,
+                            @Value("${vetclinic.import.parallelism:0}") int parallelism,
+                            @Value("${vetclinic.import.max-running:1}") int maxRunning,
+                            @Value("${vetclinic.batch.jdbc-batch-size:100}") int jdbcBatchSize,
+                            MeterRegistry meterRegistry) {
+        this.importJobRepository = importJobRepository;
+        this.personRepository = personRepository;
+        this.personCache = personCache;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.directory = directory.toAbsolutePath().normalize();
+        this.chunkSize = chunkSize;
+        this.mapSize = mapSize.toBytes();
+        this.jdbcBatchSize = jdbcBatchSize;
+        AtomicInteger threads = new AtomicInteger();
+        this.jobs = Executors.newFixedThreadPool(maxRunning, runnable -> {
+            Thread thread = new Thread(runnable, "person-import-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.validation = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.imported = Counter.builder(METRIC + ".rows")
+                .tag("result", "imported")
+                .register(meterRegistry);
+        this.failed = Counter.builder(METRIC + ".rows")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        Gauge.builder(METRIC + ".running", running, Map::size)
+                .register(meterRegistry);
+        Gauge.builder(METRIC + ".rows-per-second", running, runs -> runs.values().stream()
+                        .mapToDouble(progress -> progress.rowsPerSecond).sum())
+                .register(meterRegistry);
+        TimeGauge.builder(METRIC + ".eta", running, TimeUnit.SECONDS, runs -> runs.values().stream()
+                        .mapToLong(progress -> progress.etaSeconds).max().orElse(0))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Незавершенные задания продолжаются с последнего checkpoint-а. Запускается по готовности приложения, а не
+     * при создании бина, поэтому не зависит от того, когда бин создан (в том числе при lazy-initialization).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (ImportJob job : importJobRepository.findUnfinished()) {
+            jobs.execute(() -> run(job.id()));
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stopping = true;
+        jobs.shutdownNow();
+        jobs.awaitTermination(30, TimeUnit.SECONDS);
+        validation.shutdownNow();
+    }
+
+    public ImportJob submit(String fileName) throws InvalidImportFileError {
+        Path file = resolve(fileName);
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (IOException e) {
+            throw new InvalidImportFileError("Не удалось прочитать файл " + fileName);
+        }
+        long now = System.currentTimeMillis();
+        ImportJob job = importJobRepository.save(new ImportJob(0, fileName, ImportJobStatus.QUEUED, size, 0, 0, 0, 0,
+                null, null, null, null, now, now, null));
+        jobs.execute(() -> run(job.id()));
+        return job;
+    }
+
+    public ImportJob findById(long id) throws ImportJobNotFoundError {
+        return importJobRepository.findJob(id)
+                .orElseThrow(() -> new ImportJobNotFoundError("Нет задания импорта с таким id"));
+    }
+
+    private Path resolve(String fileName) throws InvalidImportFileError {
+        if (Objects.isNull(fileName) || fileName.isBlank()) {
+            throw new InvalidImportFileError("Не указан файл");
+        }
+        Path file = directory.resolve(fileName).normalize();
+        if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+            throw new InvalidImportFileError("Файла " + fileName + " нет в каталоге импорта");
+        }
+        return file;
+    }
+
+    private void run(long id) {
+        ImportJob job = findById(id);
+        Progress progress = new Progress(job);
+        running.put(id, progress);
+        try (FileChannel channel = FileChannel.open(resolve(job.fileName()), StandardOpenOption.READ)) {
+            MappedCsvReader reader = new MappedCsvReader(channel, mapSize);
+            int nameColumn = nameColumn(reader.next());
+            reader.seek(Math.max(job.bytesRead(), reader.position()));
+            job = importJobRepository.save(job.withStatus(ImportJobStatus.RUNNING, null, System.currentTimeMillis()));
+            while (!stopping) {
+                List<byte[]> records = reader.next(chunkSize);
+                if (records.isEmpty()) {
+                    importJobRepository.save(job.withStatus(ImportJobStatus.COMPLETED, null, System.currentTimeMillis()));
+                    return;
+                }
+                job = importChunk(job, progress, records, nameColumn, reader.position());
+            }
+        } catch (InterruptedException e) {
+            // остановка приложения: задание остается RUNNING и продолжится после старта
+            Thread.currentThread().interrupt();
+        } catch (IOException | ExecutionException | RuntimeException e) {
+            if (!stopping) {
+                String error = Objects.requireNonNullElse(e.getMessage(), e.getClass().getName());
+                importJobRepository.save(job.withStatus(ImportJobStatus.FAILED, truncate(error), System.currentTimeMillis()));
+            }
+        } finally {
+            running.remove(id);
+        }
+    }
+
+    private ImportJob importChunk(ImportJob job, Progress progress, List<byte[]> records, int nameColumn, long position)
+            throws InterruptedException, ExecutionException {
+        List<Row> rows = validation.submit(() -> records.parallelStream()
+                .map(record -> parse(record, nameColumn))
+                .toList()).get();
+        List<Person> persons = new ArrayList<>(rows.size());
+        String lastRowError = job.lastRowError();
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            if (Objects.isNull(row.error())) {
+                persons.add(row.person());
+            } else {
+                lastRowError = truncate("строка " + (job.rowsRead() + i + 1) + ": " + row.error());
+            }
+        }
+
+        progress.update(job.rowsRead() + rows.size(), position);
+        ImportJob next = new ImportJob(job.id(), job.fileName(), job.status(), job.fileSize(), position,
+                job.rowsRead() + rows.size(), job.rowsImported() + persons.size(),
+                job.rowsFailed() + rows.size() - persons.size(), progress.rowsPerSecond, progress.etaSeconds,
+                lastRowError, null, job.createdAt(), System.currentTimeMillis(), null);
+        List<Long> ids = transactionTemplate.execute(status -> {
+            List<Long> created = persons.isEmpty() ? List.of() : personRepository.insertAll(persons, jdbcBatchSize);
+            importJobRepository.save(next);
+            return created;
+        });
+        ids.forEach(personCache::invalidate);
+        imported.increment(persons.size());
+        failed.increment(rows.size() - persons.size());
+        return next;
+    }
+
+    private static int nameColumn(byte[] header) throws IOException {
+        if (Objects.nonNull(header)) {
+            List<String> columns = MappedCsvReader.fields(new String(header, StandardCharsets.UTF_8).replace("\uFEFF", ""));
+            for (int i = 0; i < columns.size(); i++) {
+                if (NAME_COLUMN.equals(columns.get(i).trim().toLowerCase(Locale.ROOT))) {
+                    return i;
+                }
+            }
+        }
+        throw new IOException("В заголовке CSV нет колонки " + NAME_COLUMN);
+    }
+
+    private Row parse(byte[] record, int nameColumn) {
+        List<String> fields = MappedCsvReader.fields(new String(record, StandardCharsets.UTF_8));
+        if (fields.size() <= nameColumn) {
+            return new Row(null, "нет колонки " + NAME_COLUMN);
+        }
+        Person person = new Person(fields.get(nameColumn));
+        Set<ConstraintViolation<Person>> violations = validator.validate(person);
+        if (violations.isEmpty()) {
+            return new Row(person, null);
+        }
+        return new Row(null, violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; ")));
+    }
+
+    private static String truncate(String value) {
+        return value.length() > MAX_ERROR_LENGTH ? value.substring(0, MAX_ERROR_LENGTH) : value;
+    }
+
+    private record Row(Person person, String error) {
+    }
+
+    /**
+     * Скорость текущего запуска: строки и байты с момента, когда задание было взято в работу.
+     */
+    private static class Progress {
+        private final long startedAt = System.nanoTime();
+        private final long startRows;
+        private final long startBytes;
+        private final long fileSize;
+        private volatile double rowsPerSecond;
+        private volatile long etaSeconds;
+
+        Progress(ImportJob job) {
+            this.startRows = job.rowsRead();
+            this.startBytes = job.bytesRead();
+            this.fileSize = job.fileSize();
+        }
+
+        void update(long rows, long bytes) {
+            double seconds = Math.max(System.nanoTime() - startedAt, 1) / 1e9;
+            double bytesPerSecond = (bytes - startBytes) / seconds;
+            rowsPerSecond = (rows - startRows) / seconds;
+            etaSeconds = bytesPerSecond > 0 ? (long) Math.ceil(Math.max(fileSize - bytes, 0) / bytesPerSecond) : 0;
+        }
+    }
+}
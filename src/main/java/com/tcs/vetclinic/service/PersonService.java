@@ -1,45 +1,265 @@
 package com.tcs.vetclinic.service;
 
+import com.tcs.vetclinic.config.ReadWriteRoutingDataSource;
 import com.tcs.vetclinic.dao.PersonRepository;
+import com.tcs.vetclinic.domain.batch.BatchItemError;
+import com.tcs.vetclinic.domain.batch.BatchResult;
+import com.tcs.vetclinic.domain.delete.BulkDeleteProgress;
+import com.tcs.vetclinic.domain.lookup.PersonLookup;
+import com.tcs.vetclinic.domain.page.Cursor;
+import com.tcs.vetclinic.domain.page.CursorPage;
 import com.tcs.vetclinic.domain.person.Person;
 import com.tcs.vetclinic.domain.sort.SortType;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.aop.MeterTag;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 @Scope(ConfigurableBeanFactory.SCOPE_SINGLETON)
 public class PersonService {
+    public static final String METRIC = "vetclinic.person.service";
+    private static final String NO_SORT = "NONE";
+
     @Autowired
     PersonRepository personRepository;
+    @Autowired
+    PersonCache personCache;
+    @Autowired
+    RequestCoalescer requestCoalescer;
+    @Autowired
+    PersonWriteBehind personWriteBehind;
+    @Autowired
+    IdempotencyStore idempotencyStore;
+    @Autowired
+    Validator validator;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Value("${vetclinic.batch.chunk-size:1000}")
+    int batchChunkSize;
+    @Value("${vetclinic.batch.jdbc-batch-size:100}")
+    int jdbcBatchSize;
+    @Value("${vetclinic.export.fetch-size:1000}")
+    int exportFetchSize;
+    @Value("${vetclinic.count.cache-ttl:1s}")
+    Duration countCacheTtl;
+    @Value("${vetclinic.lookup.max-ids:1000}")
+    int lookupMaxIds;
+    @Value("${vetclinic.lookup.chunk-size:500}")
+    int lookupChunkSize;
+    @Value("${vetclinic.bulk-delete.max-ids:100000}")
+    int bulkDeleteMaxIds;
+    @Value("${vetclinic.bulk-delete.chunk-size:1000}")
+    int bulkDeleteChunkSize;
+    @Value("${vetclinic.idempotency.max-batch-size:10000}")
+    int idempotentBatchMaxSize;
+
+    private volatile CachedCount cachedCount;
+
+    @Timed(value = METRIC, extraTags = {"operation", "save", "sort", NO_SORT})
+    public Person save(Person person) throws IllegalArgumentException, PersonWriteQueueFullError {
+        if (Objects.isNull(person)) {
+            throw new IllegalArgumentException("Person не должен быть пустым");
+        }
+        Person saved = personWriteBehind.isEnabled()
+                ? new Person(personWriteBehind.create(person), person.getName(), 0L)
+                : personRepository.save(new Person(person.getName()));
+        personCache.put(saved);
+        return saved;
+    }
 
-    public Person save(Person person) throws IllegalArgumentException {
+    /**
+     * Создание с Idempotency-Key: повтор с тем же ключом возвращает id первого создания.
+     * Идет мимо group commit, чтобы вставка и запись ключа были в одной транзакции.
+     */
+    @Timed(value = METRIC, extraTags = {"operation", "save", "sort", NO_SORT})
+    public Long save(Person person, String idempotencyKey)
+            throws IllegalArgumentException, PersonWriteQueueFullError, InvalidIdempotencyKeyError {
+        if (Objects.isNull(idempotencyKey)) {
+            return save(person).getId();
+        }
         if (Objects.isNull(person)) {
             throw new IllegalArgumentException("Person не должен быть пустым");
         }
-        return personRepository.save(new Person(person.getName()));
+        return idempotencyStore.execute(idempotencyKey, "create", Long.class,
+                () -> personRepository.save(new Person(person.getName())).getId());
+    }
+
+    /**
+     * Пакетное создание с Idempotency-Key: все чанки вставляются в транзакции записи ключа,
+     * повтор с тем же ключом возвращает первый ответ. Транзакция и сохраненный ответ растут с пакетом,
+     * поэтому пакет длиннее idempotentBatchMaxSize откатывается с 413.
+     */
+    @Timed(value = METRIC, extraTags = {"operation", "saveAll", "sort", NO_SORT})
+    public BatchResult saveAll(Iterator<Person> persons, String idempotencyKey)
+            throws InvalidIdempotencyKeyError, IdempotentBatchTooLargeError {
+        if (Objects.isNull(idempotencyKey)) {
+            return saveAll(persons);
+        }
+        return idempotencyStore.execute(idempotencyKey, "batch", BatchResult.class,
+                () -> saveAll(persons, idempotentBatchMaxSize));
+    }
+
+    @Timed(value = METRIC, extraTags = {"operation", "saveAll", "sort", NO_SORT})
+    public BatchResult saveAll(Iterator<Person> persons) {
+        return saveAll(persons, Integer.MAX_VALUE);
+    }
+
+    private BatchResult saveAll(Iterator<Person> persons, int maxSize) throws IdempotentBatchTooLargeError {
+        List<Long> ids = new ArrayList<>();
+        List<BatchItemError> errors = new ArrayList<>();
+        List<Person> chunk = new ArrayList<>(batchChunkSize);
+        List<Integer> positions = new ArrayList<>(batchChunkSize);
+
+        for (int index = 0; persons.hasNext(); index++) {
+            if (index == maxSize) {
+                throw new IdempotentBatchTooLargeError("Пакет с Idempotency-Key не может быть больше " + maxSize + " клиентов");
+            }
+            ids.add(null);
+            Person person;
+            try {
+                person = persons.next();
+            } catch (InvalidBatchError e) {
+                errors.add(new BatchItemError(index, e.getMessage()));
+                continue;
+            }
+            String violation = validate(person);
+            if (Objects.nonNull(violation)) {
+                errors.add(new BatchItemError(index, violation));
+                continue;
+            }
+
+            chunk.add(new Person(person.getName()));
+            positions.add(index);
+            if (chunk.size() == batchChunkSize) {
+                insertChunk(chunk, positions, ids);
+            }
+        }
+        insertChunk(chunk, positions, ids);
+        return new BatchResult(ids, errors);
     }
 
-    public List<Person> findAll(int page, int size, SortType sort) throws RuntimeException {
+    @Timed(value = METRIC, extraTags = {"operation", "findAll"})
+    public List<Person> findAll(int page, int size, @MeterTag(key = "sort") SortType sort) throws RuntimeException {
         Pageable paging = PageRequest.of(page, size);
         int limit = paging.getPageSize();
         int offset = paging.getPageNumber() * paging.getPageSize();
-        if (SortType.DESC.equals(sort)) {
-            return personRepository.findAllDesc(limit, offset);
+        return requestCoalescer.execute("findAll", new PageKey(limit, offset, sort), () -> {
+            if (SortType.DESC.equals(sort)) {
+                return personRepository.findAllDesc(limit, offset);
+            }
+
+            return personRepository.findAllAsc(limit, offset);
+        });
+    }
+
+    /**
+     * Страница по курсору. Пустой after открывает обход с первой страницы, пустой before - с последней:
+     * так клиент входит в режим курсора и сразу получает курсор следующей страницы.
+     */
+    @Timed(value = METRIC, extraTags = {"operation", "findAllByCursor"})
+    public CursorPage<Person> findAll(String after, String before, int size, @MeterTag(key = "sort") SortType sort) throws InvalidCursorError {
+        if (Objects.nonNull(after) && Objects.nonNull(before)) {
+            throw new InvalidCursorError("Нельзя одновременно передавать after и before");
+        }
+        int limit = PageRequest.of(0, size).getPageSize();
+        boolean forward = Objects.nonNull(after);
+        String token = forward ? after : before;
+        boolean ascending = SortType.DESC.equals(sort) != forward;
+        boolean edge = token.isEmpty();
+        long id = edge ? (ascending ? 0 : Long.MAX_VALUE) : decodeCursor(token);
+
+        List<Person> persons = ascending
+                ? personRepository.findAllAfter(id, limit)
+                : personRepository.findAllBefore(id, limit);
+        if (!forward) {
+            persons = new ArrayList<>(persons);
+            Collections.reverse(persons);
+        }
+        if (persons.isEmpty()) {
+            return new CursorPage<>(persons, null, null);
+        }
+
+        boolean full = persons.size() == limit;
+        // со страницы, открытой с края списка, в сторону этого края идти некуда
+        String next = (forward ? !full : edge) ? null : Cursor.encode(persons.get(persons.size() - 1).getId());
+        String previous = (forward ? edge : !full) ? null : Cursor.encode(persons.get(0).getId());
+        return new CursorPage<>(persons, next, previous);
+    }
+
+    @Timed(value = METRIC, extraTags = {"operation", "search", "sort", NO_SORT})
+    public CursorPage<Person> search(String name, String after, int size) throws InvalidCursorError {
+        int limit = PageRequest.of(0, size).getPageSize();
+        String prefix = name.toLowerCase(Locale.ROOT);
+        Cursor.NamePosition position = Objects.isNull(after)
+                ? new Cursor.NamePosition("", 0L)
+                : decodeNameCursor(after);
+
+        List<Person> persons = personRepository.searchByNamePrefix(prefix, prefix + Character.MAX_VALUE, position.name(), position.id(), limit);
+        if (persons.size() < limit) {
+            return new CursorPage<>(persons, null, null);
         }
+        Person last = persons.get(persons.size() - 1);
+        return new CursorPage<>(persons, Cursor.encode(last.getName().toLowerCase(Locale.ROOT), last.getId()), null);
+    }
 
-        return personRepository.findAllAsc(limit, offset);
+    @Timed(value = METRIC, extraTags = {"operation", "export"})
+    public void export(Long fromId, Long toId, @MeterTag(key = "sort") SortType sort, Consumer<Person> consumer) {
+        personRepository.forEach(
+                Objects.requireNonNullElse(fromId, 0L),
+                Objects.requireNonNullElse(toId, Long.MAX_VALUE),
+                sort, exportFetchSize, consumer);
     }
 
+    @Timed(value = METRIC, extraTags = {"operation", "count", "sort", NO_SORT})
+    public long count(boolean exact) {
+        if (exact) {
+            return personRepository.totalCount();
+        }
+        CachedCount cached = cachedCount;
+        if (Objects.nonNull(cached) && System.nanoTime() - cached.loadedAt() < countCacheTtl.toNanos()) {
+            return cached.total();
+        }
+        return requestCoalescer.execute("count", NO_SORT, () -> {
+            long total = personRepository.totalCount();
+            cachedCount = new CachedCount(total, System.nanoTime());
+            return total;
+        });
+    }
+
+    @Timed(value = METRIC, extraTags = {"operation", "findById", "sort", NO_SORT})
     public Person findById(Long id) throws PersonNotFoundError {
-        Optional<Person> optionalPerson = personRepository.findById(id);
+        Optional<Person> optionalPerson = ReadWriteRoutingDataSource.isPrimaryOnly()
+                ? refreshFromPrimary(id)
+                : personCache.getIfPresent(id);
+        if (Objects.isNull(optionalPerson)) {
+            optionalPerson = requestCoalescer.execute("findById", id,
+                    () -> personCache.get(id, personRepository::findById),
+                    () -> personRepository.findById(id));
+        }
         if (optionalPerson.isEmpty()) {
             throw new PersonNotFoundError("В репозитории нет клиента с таким id");
         }
@@ -47,21 +267,200 @@ public class PersonService {
         return optionalPerson.get();
     }
 
-    public void deleteById(Long id) throws PersonNotExistError {
+    /**
+     * Read-your-writes: кэш общий, и его могло заполнить чтение другого клиента с отстающей реплики, поэтому клиент
+     * с закрепленной основной базой читает мимо кэша и кладет в кэш свежую строку.
+     */
+    private Optional<Person> refreshFromPrimary(Long id) {
         Optional<Person> optionalPerson = personRepository.findById(id);
-        if (optionalPerson.isEmpty()) {
+        optionalPerson.ifPresentOrElse(personCache::put, () -> personCache.invalidate(id));
+        return optionalPerson;
+    }
+
+    /**
+     * Поиск многих клиентов по id: найденные в кэше берутся оттуда, остальные читаются запросами
+     * WHERE id IN (...) по lookupChunkSize уникальных id.
+     */
+    @Timed(value = METRIC, extraTags = {"operation", "findAllById", "sort", NO_SORT})
+    public PersonLookup findAllById(List<Long> ids) throws InvalidLookupError {
+        if (ids.size() > lookupMaxIds) {
+            throw new InvalidLookupError("За один запрос можно получить не больше " + lookupMaxIds + " клиентов");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new InvalidLookupError("id не должен быть пустым");
+        }
+
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        Map<Long, Optional<Person>> found = new HashMap<>();
+        List<Long> toLoad = new ArrayList<>();
+        boolean primaryOnly = ReadWriteRoutingDataSource.isPrimaryOnly();
+        for (Long id : distinct) {
+            Optional<Person> cached = primaryOnly ? null : personCache.getIfPresent(id);
+            if (Objects.isNull(cached)) {
+                toLoad.add(id);
+            } else {
+                found.put(id, cached);
+            }
+        }
+        for (int from = 0; from < toLoad.size(); from += lookupChunkSize) {
+            for (Person person : personRepository.findAllById(toLoad.subList(from, Math.min(from + lookupChunkSize, toLoad.size())))) {
+                personCache.put(person);
+                found.put(person.getId(), Optional.of(person));
+            }
+        }
+        if (primaryOnly) {
+            toLoad.stream().filter(id -> !found.containsKey(id)).forEach(personCache::invalidate);
+        }
+
+        List<Person> persons = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            persons.add(found.getOrDefault(id, Optional.empty()).orElse(null));
+        }
+        List<Long> missing = distinct.stream()
+                .filter(id -> found.getOrDefault(id, Optional.empty()).isEmpty())
+                .toList();
+        return new PersonLookup(persons, missing);
+    }
+
+    @Timed(value = METRIC, extraTags = {"operation", "deleteById", "sort", NO_SORT})
+    public void deleteById(Long id) throws PersonNotExistError {
+        if (personRepository.removeById(id) == 0) {
             throw new PersonNotExistError("В репозитории нет клиента с таким id");
         }
+        personCache.invalidate(id);
+    }
 
-        personRepository.deleteById(id);
+    /**
+     * Массовое удаление по списку id либо по диапазону fromId..toId. Каждая порция из bulkDeleteChunkSize id
+     * удаляется одним DELETE ... WHERE id IN (...) в своей транзакции, после коммита порции в progress
+     * передается накопленный итог.
+     */
+    @Timed(value = METRIC, extraTags = {"operation", "deleteAll", "sort", NO_SORT})
+    public BulkDeleteProgress deleteAll(List<Long> ids, Long fromId, Long toId, Consumer<BulkDeleteProgress> progress)
+            throws InvalidBulkDeleteError {
+        checkBulkDelete(ids, fromId, toId);
+        BulkDeleteProgress total = new BulkDeleteProgress(0, 0, null, false);
+        if (Objects.isNull(ids)) {
+            long from = fromId;
+            while (true) {
+                long start = from;
+                List<Long> chunk = new ArrayList<>();
+                int deleted = transactionTemplate.execute(status -> {
+                    chunk.addAll(personRepository.findIdsBetween(start, toId, bulkDeleteChunkSize));
+                    return chunk.isEmpty() ? 0 : personRepository.removeAllById(chunk);
+                });
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                total = deleted(total, chunk, deleted, progress);
+                if (chunk.size() < bulkDeleteChunkSize || toId.equals(total.lastId())) {
+                    break;
+                }
+                from = total.lastId() + 1;
+            }
+        } else {
+            List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+            for (int from = 0; from < distinct.size(); from += bulkDeleteChunkSize) {
+                List<Long> chunk = distinct.subList(from, Math.min(from + bulkDeleteChunkSize, distinct.size()));
+                int deleted = transactionTemplate.execute(status -> personRepository.removeAllById(chunk));
+                total = deleted(total, chunk, deleted, progress);
+            }
+        }
+        return new BulkDeleteProgress(total.chunks(), total.deleted(), total.lastId(), true);
     }
 
+    /**
+     * Проверка аргументов deleteAll отдельно от самого удаления, чтобы потоковый ответ мог вернуть 400
+     * до того, как начнет писать тело.
+     */
+    public void checkBulkDelete(List<Long> ids, Long fromId, Long toId) throws InvalidBulkDeleteError {
+        if (Objects.nonNull(ids)) {
+            if (Objects.nonNull(fromId) || Objects.nonNull(toId)) {
+                throw new InvalidBulkDeleteError("Нужно передать либо список id, либо диапазон fromId и toId");
+            }
+            if (ids.size() > bulkDeleteMaxIds || ids.stream().anyMatch(Objects::isNull)) {
+                throw new InvalidBulkDeleteError("Допускается не больше " + bulkDeleteMaxIds + " непустых id");
+            }
+        } else if (Objects.isNull(fromId) || Objects.isNull(toId) || fromId > toId) {
+            throw new InvalidBulkDeleteError("Диапазон должен содержать fromId и toId, fromId <= toId");
+        }
+    }
+
+    @Timed(value = METRIC, extraTags = {"operation", "updateById", "sort", NO_SORT})
     public void updateById(long id, Person personDto) throws PersonNotFoundError {
-        Optional<Person> optionalPerson = personRepository.findById(id);
-        if (optionalPerson.isEmpty()) {
+        if (personRepository.updateById(id, personDto) == 0) {
             throw new PersonNotFoundError("В репозитории нет клиента с таким id");
         }
+        personCache.invalidate(id);
+    }
+
+    @Timed(value = METRIC, extraTags = {"operation", "updateById", "sort", NO_SORT})
+    public void updateById(long id, long expectedVersion, Person personDto)
+            throws PersonNotFoundError, PersonVersionMismatchError {
+        if (personRepository.updateByIdAndVersion(id, expectedVersion, personDto) == 0) {
+            if (!personRepository.existsById(id)) {
+                throw new PersonNotFoundError("В репозитории нет клиента с таким id");
+            }
+            throw new PersonVersionMismatchError("Клиент был изменен, актуальная версия отличается от " + expectedVersion);
+        }
+        personCache.invalidate(id);
+    }
+
+    private long decodeCursor(String token) throws InvalidCursorError {
+        try {
+            return Cursor.decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorError("Некорректный курсор: " + token);
+        }
+    }
+
+    private String validate(Person person) {
+        if (Objects.isNull(person)) {
+            return "Person не должен быть пустым";
+        }
+        Set<ConstraintViolation<Person>> violations = validator.validate(person);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void insertChunk(List<Person> chunk, List<Integer> positions, List<Long> ids) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Long> created = personRepository.insertAll(chunk, jdbcBatchSize);
+        for (int i = 0; i < created.size(); i++) {
+            ids.set(positions.get(i), created.get(i));
+            personCache.invalidate(created.get(i));
+        }
+        chunk.clear();
+        positions.clear();
+    }
+
+    private BulkDeleteProgress deleted(BulkDeleteProgress total, List<Long> chunk, int deleted,
+                                       Consumer<BulkDeleteProgress> progress) {
+        chunk.forEach(personCache::invalidate);
+        BulkDeleteProgress next = new BulkDeleteProgress(total.chunks() + 1, total.deleted() + deleted,
+                chunk.get(chunk.size() - 1), false);
+        progress.accept(next);
+        return next;
+    }
+
+    private Cursor.NamePosition decodeNameCursor(String token) throws InvalidCursorError {
+        try {
+            return Cursor.decodeName(token);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorError("Некорректный курсор: " + token);
+        }
+    }
+
+    private record CachedCount(long total, long loadedAt) {
+    }
 
-        personRepository.updateById(id, personDto);
+    private record PageKey(int limit, int offset, SortType sort) {
     }
 }
@@ -0,0 +1,12 @@
+package com.tcs.vetclinic.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PersonVersionMismatchError extends RuntimeException {
+    public PersonVersionMismatchError(String message) {
+        super(message);
+    }
+
+}
@@ -0,0 +1,197 @@
+package com.tcs.vetclinic.service;
+
+import com.tcs.vetclinic.dao.PersonRepository;
+import com.tcs.vetclinic.domain.person.Person;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Group commit для POST /person: создания копятся в ограниченной очереди, фоновый поток вставляет их
+ * пакетом в одной транзакции, когда набралось max-batch-size записей или прошло max-delay с первой.
+ * Вызывающий поток ждет коммита своего пакета, поэтому гарантия сохранности та же, что у save, но не дольше
+ * commit-timeout: зависший или остановленный поток записи дает 503, а не вечно занятый поток запроса.
+ */
+@Component
+public class PersonWriteBehind {
+    public static final String METRIC = "vetclinic.person.write-behind";
+
+    private final PersonRepository personRepository;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final long commitTimeoutNanos;
+    private final int jdbcBatchSize;
+    private final BlockingQueue<PendingCreate> queue;
+    private final DistributionSummary batchSize;
+    private final Timer commitTimer;
+    private final Counter rejected;
+    // offer под read-блокировкой, остановка под write: после stop ни одно создание не попадет в очередь мимо дренажа
+    private final ReadWriteLock offers = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private Thread writer;
+
+    public PersonWriteBehind(PersonRepository personRepository,
+                             @Value("${vetclinic.write-behind.enabled:false}") boolean enabled,
+                             @Value("${vetclinic.write-behind.queue-capacity:10000}") int queueCapacity,
+                             @Value("${vetclinic.write-behind.max-batch-size:500}") int maxBatchSize,
+                             @Value("${vetclinic.write-behind.max-delay:2ms}") Duration maxDelay,
+                             @Value("${vetclinic.write-behind.commit-timeout:10s}") Duration commitTimeout,
+                             @Value("${vetclinic.batch.jdbc-batch-size:100}") int jdbcBatchSize,
+                             MeterRegistry meterRegistry) {
+        this.personRepository = personRepository;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.commitTimeoutNanos = commitTimeout.toNanos();
+        this.jdbcBatchSize = jdbcBatchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = DistributionSummary.builder(METRIC + ".batch.size")
+                .register(meterRegistry);
+        this.commitTimer = Timer.builder(METRIC + ".commit")
+                .register(meterRegistry);
+        this.rejected = Counter.builder(METRIC + ".rejected")
+                .register(meterRegistry);
+        Gauge.builder(METRIC + ".queue", queue, BlockingQueue::size)
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::run, "person-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        offers.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            offers.writeLock().unlock();
+        }
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        List<PendingCreate> left = new ArrayList<>();
+        queue.drainTo(left);
+        left.forEach(pending -> pending.id().completeExceptionally(
+                new PersonWriteQueueFullError("Приложение останавливается, клиент не сохранен")));
+    }
+
+    public long create(Person person) throws PersonWriteQueueFullError {
+        PendingCreate pending = new PendingCreate(new Person(person.getName()), new CompletableFuture<>());
+        boolean offered;
+        offers.readLock().lock();
+        try {
+            offered = running && queue.offer(pending);
+        } finally {
+            offers.readLock().unlock();
+        }
+        if (!offered) {
+            rejected.increment();
+            throw new PersonWriteQueueFullError("Очередь записи переполнена, повторите запрос позже");
+        }
+        try {
+            return pending.id().get(commitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // создание, еще не взятое потоком записи, убираем из очереди, иначе оно может закоммититься позже
+            throw new PersonWriteQueueFullError(queue.remove(pending)
+                    ? "Очередь записи не обработана за commit-timeout, клиент не сохранен"
+                    : "Пакет не закоммичен за commit-timeout, клиент может быть сохранен");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PersonWriteQueueFullError("Ожидание записи прервано");
+        }
+    }
+
+    private void run() {
+        List<PendingCreate> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingCreate first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                while (batch.size() < maxBatchSize) {
+                    PendingCreate next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<PendingCreate> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        batchSize.record(batch.size());
+        List<Person> persons = batch.stream().map(PendingCreate::person).toList();
+        try {
+            List<Long> ids = commitTimer.record(() -> personRepository.insertAll(persons, jdbcBatchSize));
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).id().complete(ids.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).id().completeExceptionally(e);
+                return;
+            }
+            // один плохой элемент не должен ронять весь пакет: повторяем поштучно
+            for (PendingCreate pending : batch) {
+                flush(List.of(pending));
+            }
+        } catch (Throwable e) {
+            // Error (например, OutOfMemoryError) не должен останавливать поток записи
+            batch.forEach(pending -> pending.id().completeExceptionally(e));
+        }
+    }
+
+    private record PendingCreate(Person person, CompletableFuture<Long> id) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.tcs.vetclinic.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PersonWriteQueueFullError extends RuntimeException {
+    public PersonWriteQueueFullError(String message) {
+        super(message);
+    }
+
+}
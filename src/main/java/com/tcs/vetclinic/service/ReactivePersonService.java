@@ -0,0 +1,129 @@
+package com.tcs.vetclinic.service;
+
+import com.tcs.vetclinic.dao.ReactivePersonRepository;
+import com.tcs.vetclinic.domain.batch.BatchItemError;
+import com.tcs.vetclinic.domain.batch.BatchResult;
+import com.tcs.vetclinic.domain.person.Person;
+import com.tcs.vetclinic.domain.sort.SortType;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Неблокирующий вариант {@link PersonService} для профиля reactive: запросы к базе идут через R2DBC-пул, и
+ * ожидание соединения или ответа H2 не занимает поток. Ошибки и кэш клиентов по id те же, что у блокирующего
+ * сервиса.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePersonService {
+
+    private final ReactivePersonRepository personRepository;
+    private final PersonCache personCache;
+    private final Validator validator;
+
+    public ReactivePersonService(ReactivePersonRepository personRepository, PersonCache personCache,
+                                 Validator validator) {
+        this.personRepository = personRepository;
+        this.personCache = personCache;
+        this.validator = validator;
+    }
+
+    public Mono<Person> save(Person person) {
+        if (Objects.isNull(person)) {
+            return Mono.error(new IllegalArgumentException("Person не должен быть пустым"));
+        }
+        return personRepository.save(new Person(person.getName())).doOnNext(personCache::put);
+    }
+
+    public Mono<BatchResult> saveAll(Flux<Person> persons) {
+        return persons.index()
+                .concatMap(indexed -> {
+                    int index = indexed.getT1().intValue();
+                    String violation = validate(indexed.getT2());
+                    if (Objects.nonNull(violation)) {
+                        return Mono.just(new BatchItem(index, null, new BatchItemError(index, violation)));
+                    }
+                    return save(indexed.getT2()).map(saved -> new BatchItem(index, saved.getId(), null));
+                })
+                .collectList()
+                .map(items -> {
+                    List<Long> ids = new ArrayList<>(Collections.nCopies(items.size(), null));
+                    List<BatchItemError> errors = new ArrayList<>();
+                    for (BatchItem item : items) {
+                        ids.set(item.index(), item.id());
+                        if (Objects.nonNull(item.error())) {
+                            errors.add(item.error());
+                        }
+                    }
+                    return new BatchResult(ids, errors);
+                });
+    }
+
+    public Flux<Person> findAll(int page, int size, SortType sort) {
+        Pageable paging = PageRequest.of(page, size);
+        int limit = paging.getPageSize();
+        int offset = paging.getPageNumber() * paging.getPageSize();
+        if (SortType.DESC.equals(sort)) {
+            return personRepository.findAllDesc(limit, offset);
+        }
+
+        return personRepository.findAllAsc(limit, offset);
+    }
+
+    public Mono<Long> count() {
+        return personRepository.totalCount();
+    }
+
+    public Mono<Person> findById(long id) {
+        Optional<Person> cached = personCache.getIfPresent(id);
+        Mono<Person> person = Objects.isNull(cached)
+                ? personRepository.findById(id).doOnNext(personCache::put)
+                : Mono.justOrEmpty(cached);
+        return person
+                .switchIfEmpty(Mono.error(() -> new PersonNotFoundError("В репозитории нет клиента с таким id")));
+    }
+
+    public Mono<Void> deleteById(long id) {
+        return personRepository.removeById(id)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.error(new PersonNotExistError("В репозитории нет клиента с таким id"))
+                        : Mono.<Void>empty())
+                .doOnSuccess(done -> personCache.invalidate(id));
+    }
+
+    public Mono<Void> updateById(long id, Person personDto) {
+        return personRepository.updateById(id, personDto.getName())
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new PersonNotFoundError("В репозитории нет клиента с таким id"))
+                        : Mono.<Void>empty())
+                .doOnSuccess(done -> personCache.invalidate(id));
+    }
+
+    private String validate(Person person) {
+        Set<ConstraintViolation<Person>> violations = validator.validate(person);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private record BatchItem(int index, Long id, BatchItemError error) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.tcs.vetclinic.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight для чтений: одновременные вызовы с одинаковым ключом ждут результат первого
+ * вызова вместо собственного запроса в базу. Ожидание ограничено max-wait, после чего вызов
+ * выполняет fallback сам.
+ */
+@Component
+public class RequestCoalescer {
+    public static final String METRIC = "vetclinic.person.coalescing";
+
+    private final ConcurrentMap<Flight, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final long maxWaitNanos;
+    private final MeterRegistry meterRegistry;
+
+    public RequestCoalescer(@Value("${vetclinic.coalescing.enabled:true}") boolean enabled,
+                            @Value("${vetclinic.coalescing.max-wait:1s}") Duration maxWait,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T execute(String operation, Object key, Supplier<T> loader) {
+        return execute(operation, key, loader, loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Object key, Supplier<T> loader, Supplier<T> fallback) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Flight flight = new Flight(operation, key);
+        CompletableFuture<Object> leader = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = flights.putIfAbsent(flight, leader);
+        if (Objects.isNull(inFlight)) {
+            counter(operation, "leader").increment();
+            try {
+                T result = loader.get();
+                leader.complete(result);
+                return result;
+            } catch (RuntimeException | Error e) {
+                leader.completeExceptionally(e);
+                throw e;
+            } finally {
+                flights.remove(flight, leader);
+            }
+        }
+
+        counter(operation, "collapsed").increment();
+        try {
+            return (T) inFlight.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            counter(operation, "timeout").increment();
+            return fallback.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Counter counter(String operation, String result) {
+        return Counter.builder(METRIC)
+                .tag("operation", operation)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Flight(String operation, Object key) {
+    }
+}
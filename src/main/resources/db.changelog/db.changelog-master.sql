@@ -11,3 +11,74 @@ create table if not exists person (
 insert into person( name ) values ( 'test name 1' );
 insert into person( name ) values ( 'test name 2' );
 --rollback delete from person;
+
+-- changeset dev:3 contextFilter:base
+alter table person add column name_lower varchar(255) generated always as (lower(name));
+create index person_name_lower_id_idx on person (name_lower, id);
+--rollback drop index person_name_lower_id_idx;
+--rollback alter table person drop column name_lower;
+
+-- changeset dev:4 contextFilter:base
+alter table person add column version bigint default 0 not null;
+--rollback alter table person drop column version;
+
+-- changeset dev:5 contextFilter:base
+create table person_count (
+    slot int primary key,
+    total bigint not null
+);
+insert into person_count (slot, total) select x - 1, 0 from system_range(1, 16);
+update person_count set total = (select count(*) from person) where slot = 0;
+create trigger person_count_insert after insert on person for each row call 'com.tcs.vetclinic.dao.PersonCountTrigger';
+create trigger person_count_delete after delete on person for each row call 'com.tcs.vetclinic.dao.PersonCountTrigger';
+--rollback drop trigger person_count_delete;
+--rollback drop trigger person_count_insert;
+--rollback drop table person_count;
+
+-- changeset dev:6 contextFilter:base
+create table idempotency_key (
+    idem_key varchar(255) primary key,
+    operation varchar(32) not null,
+    result varchar(1000000) not null,
+    expires_at bigint not null
+);
+create index idempotency_key_expires_at_idx on idempotency_key (expires_at);
+--rollback drop table idempotency_key;
+
+-- changeset dev:7 contextFilter:base
+create table person_change (
+    seq bigint generated always as identity (start with 1) primary key,
+    operation varchar(8) not null,
+    person_id bigint not null,
+    name varchar(255),
+    version bigint,
+    changed_at bigint not null
+);
+create index person_change_changed_at_idx on person_change (changed_at);
+create trigger person_change_log after insert, update, delete on person for each row call 'com.tcs.vetclinic.dao.PersonChangeTrigger';
+--rollback drop trigger person_change_log;
+--rollback drop table person_change;
+
+-- changeset dev:8 contextFilter:base
+create table import_job (
+    id bigint generated always as identity (start with 1) primary key,
+    file_name varchar(1024) not null,
+    status varchar(16) not null,
+    file_size bigint not null,
+    bytes_read bigint not null,
+    rows_read bigint not null,
+    rows_imported bigint not null,
+    rows_failed bigint not null,
+    rows_per_second double precision,
+    eta_seconds bigint,
+    last_row_error varchar(4000),
+    error varchar(4000),
+    created_at bigint not null,
+    updated_at bigint not null,
+    finished_at bigint
+);
+--rollback drop table import_job;
+
+-- changeset dev:9 contextFilter:base
+alter table idempotency_key alter column result set data type clob;
+--rollback alter table idempotency_key alter column result set data type varchar(1000000);
@@ -0,0 +1,73 @@
+package com.tcs.vetclinic;
+
+import static io.qameta.allure.Allure.step;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tcs.vetclinic.config.ConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.qameta.allure.AllureId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class ConcurrencyLimiterTests {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Запрос сверх лимита отклоняется и учитывается в метрике")
+    @AllureId("1")
+    public void rejectsAboveLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("read", 2, 1, 10, 2.0, 0.2, meterRegistry);
+
+        step("Занимаем оба слота и пробуем третий запрос", () -> {
+            assertTrue(limiter.tryAcquire());
+            assertTrue(limiter.tryAcquire());
+
+            step("Убеждаемся, что третий отклонен, а после освобождения слота запрос проходит", () -> {
+                assertFalse(limiter.tryAcquire());
+                assertEquals(1.0, meterRegistry.counter(ConcurrencyLimiter.METRIC + ".rejected", "type", "read").count());
+                limiter.release();
+                assertTrue(limiter.tryAcquire());
+            });
+        });
+    }
+
+    @Test
+    @DisplayName("Лимит растет при стабильной задержке и сжимается при ее росте")
+    @AllureId("2")
+    public void limitFollowsLatency() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("write", 10, 2, 100, 2.0, 0.2, meterRegistry);
+
+        step("Нагружаем лимитер до предела с задержкой 5 мс", () -> {
+            saturate(limiter, 5, 50);
+
+            step("Убеждаемся, что лимит вырос и опубликован в метрике", () -> {
+                assertTrue(limiter.getLimit() > 10);
+                assertEquals(limiter.getLimit(), meterRegistry.get(ConcurrencyLimiter.METRIC + ".limit")
+                        .tag("type", "write").gauge().value());
+            });
+        });
+
+        step("Продолжаем с задержкой 50 мс и убеждаемся, что лимит сжался", () -> {
+            int grown = limiter.getLimit();
+            saturate(limiter, 50, 10);
+            assertTrue(limiter.getLimit() < grown / 2);
+        });
+    }
+
+    private static void saturate(ConcurrencyLimiter limiter, long rttMillis, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(TimeUnit.MILLISECONDS.toNanos(rttMillis));
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.tcs.vetclinic;
+
+import static io.qameta.allure.Allure.step;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tcs.vetclinic.dao.IdempotencyKeyRepository;
+import com.tcs.vetclinic.domain.batch.BatchResult;
+import com.tcs.vetclinic.domain.idempotency.IdempotencyKey;
+import com.tcs.vetclinic.service.IdempotencyStore;
+import com.tcs.vetclinic.service.InvalidIdempotencyKeyError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.qameta.allure.AllureId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class IdempotencyStoreTests {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    IdempotencyKeyRepository repository = mock(IdempotencyKeyRepository.class);
+
+    Map<String, IdempotencyKey> table = new ConcurrentHashMap<>();
+
+    ExecutorService executor = Executors.newCachedThreadPool();
+
+    IdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    public void start() {
+        when(repository.findActive(anyString(), anyLong())).thenAnswer(invocation ->
+                Optional.ofNullable(table.get(invocation.<String>getArgument(0))));
+        when(repository.insert(any())).thenAnswer(invocation -> {
+            IdempotencyKey record = invocation.getArgument(0);
+            table.put(record.getIdemKey(), record);
+            return 1;
+        });
+        idempotencyStore = new IdempotencyStore(repository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new ObjectMapper(),
+                Duration.ofHours(1), 100, meterRegistry);
+    }
+
+    @AfterEach
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Одновременные запросы с одним Idempotency-Key выполняют создание один раз")
+    @AllureId("1")
+    public void concurrentDuplicatesRunActionOnce() throws Exception {
+        int callers = 16;
+        AtomicLong creates = new AtomicLong();
+
+        step("Запускаем " + callers + " одновременных созданий с одним ключом", () -> {
+            List<CompletableFuture<Long>> ids = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                ids.add(CompletableFuture.supplyAsync(() -> idempotencyStore.execute("key-1", "create", Long.class, () -> {
+                    sleep();
+                    return 100 + creates.incrementAndGet();
+                }), executor));
+            }
+
+            step("Убеждаемся, что создание выполнено один раз и все получили его id", () -> {
+                for (CompletableFuture<Long> id : ids) {
+                    assertEquals(101L, id.get(10, TimeUnit.SECONDS));
+                }
+                assertEquals(1, creates.get());
+                assertEquals(callers - 1, meterRegistry.counter(IdempotencyStore.METRIC,
+                        "operation", "create", "result", "replayed").count());
+            });
+        });
+    }
+
+    @Test
+    @DisplayName("Повтор возвращает сохраненный ответ, ключ другой операции отклоняется")
+    @AllureId("2")
+    public void replayReturnsStoredResult() {
+        BatchResult result = new BatchResult(List.of(1L, 2L), List.of());
+
+        step("Сохраняем ответ пакетного создания и читаем его из таблицы в новом экземпляре", () -> {
+            idempotencyStore.execute("key-2", "batch", BatchResult.class, () -> result);
+            IdempotencyStore restarted = new IdempotencyStore(repository,
+                    new TransactionTemplate(mock(PlatformTransactionManager.class)), new ObjectMapper(),
+                    Duration.ofHours(1), 100, meterRegistry);
+
+            step("Убеждаемся, что повтор вернул те же id без выполнения действия", () -> {
+                BatchResult replay = restarted.execute("key-2", "batch", BatchResult.class, () -> {
+                    throw new AssertionError("действие не должно выполняться повторно");
+                });
+                assertEquals(result.ids(), replay.ids());
+            });
+
+            step("Убеждаемся, что ключ пакета нельзя использовать для создания", () -> {
+                assertThrows(InvalidIdempotencyKeyError.class,
+                        () -> restarted.execute("key-2", "create", Long.class, () -> 1L));
+            });
+        });
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
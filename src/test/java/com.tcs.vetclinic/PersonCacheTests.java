@@ -0,0 +1,76 @@
+package com.tcs.vetclinic;
+
+import static io.qameta.allure.Allure.step;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tcs.vetclinic.domain.person.Person;
+import com.tcs.vetclinic.service.PersonCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.qameta.allure.AllureId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PersonCacheTests {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    PersonCache personCache = new PersonCache(100, Duration.ofMinutes(1), Duration.ofMinutes(1), meterRegistry);
+
+    @Test
+    @DisplayName("Повторное чтение пользователя не обращается к репозиторию")
+    @AllureId("1")
+    public void repeatedReadIsServedFromCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        step("Дважды читаем пользователя с id = 1", () -> {
+            personCache.get(1L, id -> {
+                loads.incrementAndGet();
+                return Optional.of(new Person(id, "Alex"));
+            });
+            Optional<Person> cached = personCache.get(1L, id -> {
+                loads.incrementAndGet();
+                return Optional.empty();
+            });
+
+            step("Убеждаемся, что репозиторий вызван один раз, а второе чтение - попадание в кэш", () -> {
+                assertEquals(1, loads.get());
+                assertEquals("Alex", cached.get().getName());
+                assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", PersonCache.CACHE_NAME)
+                        .tag("result", "hit").functionCounter().count());
+            });
+        });
+    }
+
+    @Test
+    @DisplayName("Отсутствующий пользователь кэшируется, а инвалидация сбрасывает запись")
+    @AllureId("2")
+    public void missIsCachedUntilInvalidated() {
+        AtomicInteger loads = new AtomicInteger();
+
+        step("Дважды читаем несуществующего пользователя с id = 99999", () -> {
+            personCache.get(99999L, id -> {
+                loads.incrementAndGet();
+                return Optional.empty();
+            });
+            assertTrue(personCache.get(99999L, id -> {
+                loads.incrementAndGet();
+                return Optional.empty();
+            }).isEmpty());
+            assertEquals(1, loads.get());
+        });
+
+        step("Инвалидируем запись и убеждаемся, что следующее чтение идет в репозиторий", () -> {
+            personCache.invalidate(99999L);
+            personCache.get(99999L, id -> {
+                loads.incrementAndGet();
+                return Optional.of(new Person(id, "Michael"));
+            });
+            assertEquals(2, loads.get());
+        });
+    }
+}
@@ -0,0 +1,203 @@
+package com.tcs.vetclinic;
+
+import static io.qameta.allure.Allure.step;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.tcs.vetclinic.dao.PersonChangeRepository;
+import com.tcs.vetclinic.domain.change.ChangeType;
+import com.tcs.vetclinic.domain.change.PersonChange;
+import com.tcs.vetclinic.service.PersonChangeFeed;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.qameta.allure.AllureId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+public class PersonChangeFeedTests {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    PersonChangeRepository repository = mock(PersonChangeRepository.class);
+
+    List<PersonChange> log = new CopyOnWriteArrayList<>();
+
+    List<PersonChange> uncommitted = new CopyOnWriteArrayList<>();
+
+    PersonChangeFeed personChangeFeed;
+
+    @BeforeEach
+    public void start() {
+        when(repository.findAfter(anyLong(), anyInt())).thenAnswer(invocation ->
+                read(invocation.getArgument(0), Long.MAX_VALUE, invocation.getArgument(1)));
+        when(repository.findBetween(anyLong(), anyLong(), anyInt())).thenAnswer(invocation ->
+                read(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
+        when(repository.countWritten(anyLong(), anyLong())).thenAnswer(invocation ->
+                countWritten(invocation.getArgument(0), invocation.getArgument(1)));
+        personChangeFeed = new PersonChangeFeed(repository, 10, 1, 10, Duration.ofSeconds(10),
+                Duration.ofSeconds(30), Duration.ofDays(7), 1, meterRegistry);
+        personChangeFeed.start();
+    }
+
+    @AfterEach
+    public void stop() {
+        personChangeFeed.stop();
+    }
+
+    @Test
+    @DisplayName("Подписчик получает журнал со своей позиции, а затем новые изменения по порядку")
+    @AllureId("1")
+    public void subscriberCatchesUpThenFollows() throws Exception {
+        append(25);
+        personChangeFeed.poll();
+        List<Long> received = new CopyOnWriteArrayList<>();
+
+        step("Подписываемся с seq 5 и добавляем в журнал еще 15 изменений", () -> {
+            personChangeFeed.subscribe(5L, changes -> changes.forEach(change -> received.add(change.seq())));
+            append(15);
+            personChangeFeed.poll();
+
+            step("Убеждаемся, что получены seq 6..40 без пропусков и повторов", () -> {
+                awaitSize(received, 35);
+                assertEquals(LongStream.rangeClosed(6, 40).boxed().toList(), received);
+            });
+        });
+    }
+
+    @Test
+    @DisplayName("Медленный подписчик не теряет изменения при переполнении буфера")
+    @AllureId("2")
+    public void slowSubscriberFallsBackToLog() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Long> received = new CopyOnWriteArrayList<>();
+
+        step("Подписываемся медленным потребителем и публикуем 5 пакетов при буфере на 1 пакет", () -> {
+            personChangeFeed.subscribe(null, changes -> {
+                await(release);
+                changes.forEach(change -> received.add(change.seq()));
+            });
+            for (int i = 0; i < 5; i++) {
+                append(10);
+                personChangeFeed.poll();
+            }
+            release.countDown();
+
+            step("Убеждаемся, что буфер переполнялся, но получены все 50 изменений по порядку", () -> {
+                awaitSize(received, 50);
+                assertTrue(meterRegistry.counter(PersonChangeFeed.METRIC + ".overflow").count() > 0);
+                assertEquals(LongStream.rangeClosed(1, 50).boxed().toList(), received);
+            });
+        });
+    }
+
+    @Test
+    @DisplayName("Пропуск от транзакции, открытой дольше gap-timeout, не теряет ее изменения")
+    @AllureId("3")
+    public void lateGapIsNotSkipped() throws Exception {
+        restart(Duration.ofMillis(10));
+        List<Long> received = new CopyOnWriteArrayList<>();
+        personChangeFeed.subscribe(null, changes -> changes.forEach(change -> received.add(change.seq())));
+
+        step("Открываем транзакцию с seq 1 и коммитим seq 2 после нее", () -> {
+            PersonChange open = change(1);
+            uncommitted.add(open);
+            log.add(change(2));
+            for (int i = 0; i < 5; i++) {
+                Thread.sleep(20);
+                personChangeFeed.poll();
+            }
+
+            step("Убеждаемся, что после gap-timeout seq 2 не выдан, пока seq 1 не закоммичен", () ->
+                    assertEquals(0, personChangeFeed.head()));
+
+            step("Коммитим seq 1 и убеждаемся, что получены seq 1 и 2 по порядку", () -> {
+                uncommitted.remove(open);
+                log.add(0, open);
+                personChangeFeed.poll();
+                awaitSize(received, 2);
+                assertEquals(List.of(1L, 2L), received);
+            });
+        });
+    }
+
+    @Test
+    @DisplayName("Пропуск от откатившейся транзакции пропускается после gap-timeout")
+    @AllureId("4")
+    public void rolledBackGapIsSkipped() throws Exception {
+        restart(Duration.ofMillis(10));
+        List<Long> received = new CopyOnWriteArrayList<>();
+        personChangeFeed.subscribe(null, changes -> changes.forEach(change -> received.add(change.seq())));
+
+        step("Коммитим seq 2 и 3, а seq 1 откатывается", () -> {
+            log.add(change(2));
+            log.add(change(3));
+            personChangeFeed.poll();
+            Thread.sleep(20);
+            personChangeFeed.poll();
+
+            step("Убеждаемся, что получены seq 2 и 3", () -> {
+                awaitSize(received, 2);
+                assertEquals(List.of(2L, 3L), received);
+            });
+        });
+    }
+
+    private void restart(Duration gapTimeout) {
+        personChangeFeed.stop();
+        personChangeFeed = new PersonChangeFeed(repository, 10, 1, 10, gapTimeout,
+                Duration.ofSeconds(30), Duration.ofDays(7), 1, meterRegistry);
+        personChangeFeed.start();
+    }
+
+    private void append(int count) {
+        for (int i = 0; i < count; i++) {
+            log.add(change(log.size() + 1));
+        }
+    }
+
+    private static PersonChange change(long seq) {
+        return new PersonChange(seq, ChangeType.INSERT, seq, "Person " + seq, 0L, System.currentTimeMillis());
+    }
+
+    private long countWritten(long after, long before) {
+        return Stream.concat(log.stream(), uncommitted.stream())
+                .filter(change -> change.seq() > after && change.seq() < before)
+                .count();
+    }
+
+    private List<PersonChange> read(long after, long upTo, int limit) {
+        return log.stream()
+                .filter(change -> change.seq() > after && change.seq() <= upTo)
+                .limit(limit)
+                .toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitSize(List<Long> received, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (received.size() < size && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(50);
+    }
+}
@@ -0,0 +1,71 @@
+package com.tcs.vetclinic;
+
+import static io.qameta.allure.Allure.step;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.tcs.vetclinic.dao.PersonCountTrigger;
+import io.qameta.allure.AllureId;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class PersonCountTriggerTests {
+    private static final int THREADS = 8;
+    private static final int BATCHES = 20;
+    private static final int BATCH_SIZE = 100;
+
+    @Test
+    @DisplayName("Параллельные пакетные вставки не ловят взаимоблокировку на person_count")
+    @AllureId("1")
+    public void concurrentBatchInsertsDoNotDeadlock() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:person-count;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(h2);
+        jdbcTemplate.execute("CREATE TABLE person (id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY, name VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE person_count (slot INT PRIMARY KEY, total BIGINT NOT NULL)");
+        jdbcTemplate.execute("INSERT INTO person_count (slot, total) SELECT x - 1, 0 FROM system_range(1, "
+                + PersonCountTrigger.SLOTS + ")");
+        jdbcTemplate.execute("CREATE TRIGGER person_count_insert AFTER INSERT ON person FOR EACH ROW CALL '"
+                + PersonCountTrigger.class.getName() + "'");
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(h2));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        step("Вставляем " + THREADS + " потоками по " + BATCHES + " пакетов из " + BATCH_SIZE
+                + " строк, каждый пакет одной транзакцией", () -> {
+            List<Future<?>> inserts = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                inserts.add(executor.submit(() -> {
+                    for (int batch = 0; batch < BATCHES; batch++) {
+                        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                                "INSERT INTO person (name) VALUES (?)",
+                                Collections.nCopies(BATCH_SIZE, new Object[]{"client"})));
+                    }
+                }));
+            }
+            try {
+                for (Future<?> insert : inserts) {
+                    insert.get(60, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            step("Убеждаемся, что все пакеты закоммичены и счетчик совпадает с COUNT(*)", () -> {
+                long expected = (long) THREADS * BATCHES * BATCH_SIZE;
+                assertEquals(expected, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person", Long.class));
+                assertEquals(expected, jdbcTemplate.queryForObject("SELECT SUM(total) FROM person_count", Long.class));
+            });
+        });
+    }
+}
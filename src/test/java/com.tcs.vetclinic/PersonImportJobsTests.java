@@ -0,0 +1,166 @@
+package com.tcs.vetclinic;
+
+import static io.qameta.allure.Allure.step;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.tcs.vetclinic.dao.ImportJobRepository;
+import com.tcs.vetclinic.dao.PersonRepository;
+import com.tcs.vetclinic.domain.importjob.ImportJob;
+import com.tcs.vetclinic.domain.importjob.ImportJobStatus;
+import com.tcs.vetclinic.domain.person.Person;
+import com.tcs.vetclinic.service.InvalidImportFileError;
+import com.tcs.vetclinic.service.PersonCache;
+import com.tcs.vetclinic.service.PersonImportJobs;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.qameta.allure.AllureId;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+public class PersonImportJobsTests {
+    private static final String CSV = """
+            id,name
+            1,Barsik
+            2,"Murzik, the ""Great""\"
+            3,Al
+            4,"Two
+            lines"
+            5,Snowball
+            """;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    PersonRepository personRepository = mock(PersonRepository.class);
+
+    ImportJobRepository importJobRepository = mock(ImportJobRepository.class);
+
+    Map<Long, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    List<Person> inserted = new CopyOnWriteArrayList<>();
+
+    @TempDir
+    Path directory;
+
+    PersonImportJobs personImportJobs;
+
+    @AfterEach
+    public void stop() throws InterruptedException {
+        personImportJobs.stop();
+    }
+
+    @Test
+    @DisplayName("Импорт CSV проходит порциями и отклоняет строки, нарушающие ограничения Person")
+    @AllureId("1")
+    public void importsValidRowsInChunks() throws Exception {
+        Files.writeString(directory.resolve("partners.csv"), CSV, StandardCharsets.UTF_8);
+        personImportJobs = start();
+
+        step("Создаем задание импорта partners.csv", () -> {
+            ImportJob job = personImportJobs.submit("partners.csv");
+
+            step("Убеждаемся, что импортированы четыре строки, а строка с коротким именем отклонена", () -> {
+                ImportJob done = await(job.id());
+                assertEquals(ImportJobStatus.COMPLETED, done.status());
+                assertEquals(List.of("Barsik", "Murzik, the \"Great\"", "Two\nlines", "Snowball"),
+                        inserted.stream().map(Person::getName).toList());
+                assertEquals(5, done.rowsRead());
+                assertEquals(4, done.rowsImported());
+                assertEquals(1, done.rowsFailed());
+                assertTrue(done.lastRowError().startsWith("строка 3: name"));
+                assertEquals(done.fileSize(), done.bytesRead());
+                assertEquals(4.0, meterRegistry.counter(PersonImportJobs.METRIC + ".rows", "result", "imported").count());
+            });
+        });
+
+        step("Убеждаемся, что файл вне каталога импорта не принимается (400)", () ->
+                assertThrows(InvalidImportFileError.class, () -> personImportJobs.submit("../partners.csv")));
+    }
+
+    @Test
+    @DisplayName("Прерванное задание продолжается с checkpoint-а")
+    @AllureId("2")
+    public void resumesFromCheckpoint() throws Exception {
+        Files.writeString(directory.resolve("partners.csv"), CSV, StandardCharsets.UTF_8);
+        long checkpoint = CSV.indexOf("3,Al");
+        jobs.put(1L, new ImportJob(1L, "partners.csv", ImportJobStatus.RUNNING, CSV.length(), checkpoint, 2, 2, 0,
+                null, null, null, null, 0, 0, null));
+        when(importJobRepository.findUnfinished()).thenAnswer(invocation -> List.copyOf(jobs.values()));
+
+        step("Запускаем импорт с заданием, прерванным после двух строк", () -> {
+            personImportJobs = start();
+            personImportJobs.start();
+
+            step("Убеждаемся, что вставлены только строки после checkpoint-а", () -> {
+                ImportJob done = await(1L);
+                assertEquals(ImportJobStatus.COMPLETED, done.status());
+                assertEquals(List.of("Two\nlines", "Snowball"), inserted.stream().map(Person::getName).toList());
+                assertEquals(5, done.rowsRead());
+                assertEquals(4, done.rowsImported());
+            });
+        });
+    }
+
+    private PersonImportJobs start() {
+        AtomicLong sequence = new AtomicLong(jobs.size());
+        when(importJobRepository.save(any())).thenAnswer(invocation -> {
+            ImportJob job = invocation.getArgument(0);
+            if (job.id() == 0) {
+                job = new ImportJob(sequence.incrementAndGet(), job.fileName(), job.status(), job.fileSize(),
+                        job.bytesRead(), job.rowsRead(), job.rowsImported(), job.rowsFailed(), job.rowsPerSecond(),
+                        job.etaSeconds(), job.lastRowError(), job.error(), job.createdAt(), job.updatedAt(),
+                        job.finishedAt());
+            }
+            jobs.put(job.id(), job);
+            return job;
+        });
+        when(importJobRepository.findJob(anyLong())).thenAnswer(invocation ->
+                Optional.ofNullable(jobs.get(invocation.<Long>getArgument(0))));
+        AtomicLong ids = new AtomicLong();
+        when(personRepository.insertAll(anyList(), anyInt())).thenAnswer(invocation -> {
+            List<Person> persons = invocation.getArgument(0);
+            inserted.addAll(persons);
+            return LongStream.range(0, persons.size()).map(i -> ids.incrementAndGet()).boxed().toList();
+        });
+        return new PersonImportJobs(importJobRepository, personRepository,
+                new PersonCache(100, Duration.ofSeconds(30), Duration.ofSeconds(2), meterRegistry),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                Validation.buildDefaultValidatorFactory().getValidator(), directory, 2, DataSize.ofBytes(32), 2, 1,
+                100, meterRegistry);
+    }
+
+    private ImportJob await(long id) throws InterruptedException {
+        for (int i = 0; i < 1000; i++) {
+            ImportJob job = jobs.get(id);
+            if (job.status() == ImportJobStatus.COMPLETED || job.status() == ImportJobStatus.FAILED) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Задание " + id + " не завершилось");
+    }
+}
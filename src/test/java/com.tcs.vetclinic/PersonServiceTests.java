@@ -0,0 +1,294 @@
+package com.tcs.vetclinic;
+
+import static io.qameta.allure.Allure.step;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.tcs.vetclinic.config.ReadWriteRoutingDataSource;
+import com.tcs.vetclinic.dao.PersonRepository;
+import com.tcs.vetclinic.domain.batch.BatchResult;
+import com.tcs.vetclinic.domain.delete.BulkDeleteProgress;
+import com.tcs.vetclinic.domain.lookup.PersonLookup;
+import com.tcs.vetclinic.domain.person.Person;
+import com.tcs.vetclinic.domain.sort.SortType;
+import com.tcs.vetclinic.service.IdempotencyStore;
+import com.tcs.vetclinic.service.IdempotentBatchTooLargeError;
+import com.tcs.vetclinic.service.InvalidBulkDeleteError;
+import com.tcs.vetclinic.service.InvalidLookupError;
+import com.tcs.vetclinic.service.PersonCache;
+import com.tcs.vetclinic.service.PersonNotExistError;
+import com.tcs.vetclinic.service.PersonNotFoundError;
+import com.tcs.vetclinic.service.PersonService;
+import com.tcs.vetclinic.service.RequestCoalescer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.qameta.allure.AllureId;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@ExtendWith(MockitoExtension.class)
+public class PersonServiceTests {
+
+    @Mock
+    PersonRepository personRepository;
+
+    @Mock
+    PersonCache personCache;
+
+    @Mock
+    IdempotencyStore idempotencyStore;
+
+    @Mock
+    Validator validator;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    RequestCoalescer requestCoalescer = new RequestCoalescer(true, Duration.ofSeconds(10), meterRegistry);
+
+    @InjectMocks
+    PersonService personService;
+
+    @Test
+    @DisplayName("Удаление существующего пользователя выполняется одним запросом")
+    @AllureId("1")
+    public void deleteExistingRunsSingleStatement() {
+        when(personRepository.removeById(anyLong())).thenReturn(1);
+
+        step("Удаляем пользователя с id = 1", () -> personService.deleteById(1L));
+
+        step("Убеждаемся, что в репозиторий ушел только DELETE", () -> {
+            verify(personRepository).removeById(1L);
+            verifyNoMoreInteractions(personRepository);
+        });
+    }
+
+    @Test
+    @DisplayName("Удаление несуществующего пользователя возвращает 409 после одного запроса")
+    @AllureId("2")
+    public void deleteMissingThrowsNotExist() {
+        when(personRepository.removeById(anyLong())).thenReturn(0);
+
+        step("Убеждаемся, что удаление id = 99999 завершается PersonNotExistError (409)", () ->
+                assertThrows(PersonNotExistError.class, () -> personService.deleteById(99999L)));
+
+        step("Убеждаемся, что в репозиторий ушел только DELETE", () -> {
+            verify(personRepository).removeById(99999L);
+            verifyNoMoreInteractions(personRepository);
+        });
+    }
+
+    @Test
+    @DisplayName("Обновление существующего пользователя выполняется одним запросом")
+    @AllureId("3")
+    public void updateExistingRunsSingleStatement() {
+        Person person = new Person("Michael");
+        when(personRepository.updateById(anyLong(), any(Person.class))).thenReturn(1);
+
+        step("Обновляем пользователя с id = 5", () -> personService.updateById(5L, person));
+
+        step("Убеждаемся, что в репозиторий ушел только UPDATE", () -> {
+            verify(personRepository).updateById(5L, person);
+            verifyNoMoreInteractions(personRepository);
+        });
+    }
+
+    @Test
+    @DisplayName("Обновление несуществующего пользователя возвращает 404 после одного запроса")
+    @AllureId("4")
+    public void updateMissingThrowsNotFound() {
+        Person person = new Person("NonExistent");
+        when(personRepository.updateById(anyLong(), any(Person.class))).thenReturn(0);
+
+        step("Убеждаемся, что обновление id = 99999 завершается PersonNotFoundError (404)", () ->
+                assertThrows(PersonNotFoundError.class, () -> personService.updateById(99999L, person)));
+
+        step("Убеждаемся, что в репозиторий ушел только UPDATE", () -> {
+            verify(personRepository).updateById(99999L, person);
+            verifyNoMoreInteractions(personRepository);
+        });
+    }
+
+    @Test
+    @DisplayName("Одновременные одинаковые запросы страницы выполняют один запрос в базу")
+    @AllureId("5")
+    public void concurrentFindAllRunsSingleQuery() throws Exception {
+        int callers = 16;
+        List<Person> page = List.of(new Person(1L, "Alex"), new Person(2L, "Michael"));
+        CountDownLatch release = new CountDownLatch(1);
+        when(personRepository.findAllAsc(10, 0)).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return page;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        List<Future<List<Person>>> results = new ArrayList<>();
+
+        step("Запускаем " + callers + " одновременных GET /person?page=0&size=10", () -> {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> personService.findAll(0, 10, SortType.ASC)));
+            }
+            while (collapsed() < callers - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+        });
+
+        step("Убеждаемся, что запрос в базу один, а все вызовы получили его результат", () -> {
+            for (Future<List<Person>> result : results) {
+                assertSame(page, result.get(10, TimeUnit.SECONDS));
+            }
+            verify(personRepository, times(1)).findAllAsc(10, 0);
+            assertEquals(callers - 1, collapsed());
+        });
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Приблизительное количество пользователей берется из кэша, точное - из счетчика")
+    @AllureId("6")
+    public void approximateCountIsCached() {
+        ReflectionTestUtils.setField(personService, "countCacheTtl", Duration.ofMinutes(1));
+        when(personRepository.totalCount()).thenReturn(42L, 43L);
+
+        step("Дважды запрашиваем приблизительное количество", () -> {
+            assertEquals(42L, personService.count(false));
+            assertEquals(42L, personService.count(false));
+        });
+
+        step("Убеждаемся, что точное количество читается из счетчика заново", () -> {
+            assertEquals(43L, personService.count(true));
+            verify(personRepository, times(2)).totalCount();
+        });
+    }
+
+    @Test
+    @DisplayName("Поиск по списку id читает базу чанками и сохраняет порядок запроса")
+    @AllureId("7")
+    public void findAllByIdKeepsRequestOrder() {
+        ReflectionTestUtils.setField(personService, "lookupMaxIds", 10);
+        ReflectionTestUtils.setField(personService, "lookupChunkSize", 2);
+        when(personCache.getIfPresent(anyLong())).thenReturn(null);
+        when(personRepository.findAllById(List.of(3L, 1L))).thenReturn(List.of(new Person(1L, "First"), new Person(3L, "Third")));
+        when(personRepository.findAllById(List.of(7L))).thenReturn(List.of());
+
+        step("Запрашиваем id 3, 1, 7, 3", () -> {
+            PersonLookup lookup = personService.findAllById(List.of(3L, 1L, 7L, 3L));
+
+            step("Убеждаемся, что клиенты идут в порядке запроса, а 7 отмечен как ненайденный", () -> {
+                assertEquals(Arrays.asList(new Person(3L, "Third"), new Person(1L, "First"), null, new Person(3L, "Third")),
+                        lookup.persons());
+                assertEquals(List.of(7L), lookup.missing());
+                verify(personRepository, times(2)).findAllById(any());
+            });
+        });
+
+        step("Убеждаемся, что больше lookupMaxIds id не принимается (400)", () ->
+                assertThrows(InvalidLookupError.class,
+                        () -> personService.findAllById(Collections.nCopies(11, 1L))));
+    }
+
+    @Test
+    @DisplayName("Удаление по диапазону id идет порциями и сообщает итог после каждой")
+    @AllureId("8")
+    public void deleteRangeRunsInChunks() {
+        ReflectionTestUtils.setField(personService, "bulkDeleteChunkSize", 2);
+        ReflectionTestUtils.setField(personService, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        when(personRepository.findIdsBetween(1L, 10L, 2)).thenReturn(List.of(1L, 2L));
+        when(personRepository.findIdsBetween(3L, 10L, 2)).thenReturn(List.of(5L));
+        when(personRepository.removeAllById(List.of(1L, 2L))).thenReturn(2);
+        when(personRepository.removeAllById(List.of(5L))).thenReturn(1);
+        List<BulkDeleteProgress> progress = new ArrayList<>();
+
+        step("Удаляем клиентов с id от 1 до 10 порциями по 2", () -> {
+            BulkDeleteProgress result = personService.deleteAll(null, 1L, 10L, progress::add);
+
+            step("Убеждаемся, что было две порции и итог после каждой", () -> {
+                assertEquals(List.of(new BulkDeleteProgress(1, 2, 2L, false), new BulkDeleteProgress(2, 3, 5L, false)),
+                        progress);
+                assertEquals(new BulkDeleteProgress(2, 3, 5L, true), result);
+                verify(personCache).invalidate(5L);
+            });
+        });
+
+        step("Убеждаемся, что список id и диапазон одновременно не принимаются (400)", () ->
+                assertThrows(InvalidBulkDeleteError.class,
+                        () -> personService.deleteAll(List.of(1L), 1L, 10L, progress::add)));
+    }
+
+    @Test
+    @DisplayName("Клиент с закрепленной основной базой читает мимо кэша и обновляет его")
+    @AllureId("9")
+    public void primaryOnlyReadRefreshesCache() {
+        Person fresh = new Person(5L, "Renamed");
+        when(personRepository.findById(5L)).thenReturn(Optional.of(fresh));
+
+        step("Читаем клиента 5 после своей записи, пока в кэше строка с отстающей реплики", () -> {
+            ReadWriteRoutingDataSource.setPrimaryOnly(true);
+            try {
+                assertSame(fresh, personService.findById(5L));
+            } finally {
+                ReadWriteRoutingDataSource.clearPrimaryOnly();
+            }
+
+            step("Убеждаемся, что кэш не читался, а свежая строка положена в кэш", () -> {
+                verify(personCache, never()).getIfPresent(anyLong());
+                verify(personCache).put(fresh);
+            });
+        });
+    }
+
+    @Test
+    @DisplayName("Пакет с Idempotency-Key длиннее лимита откатывается с 413")
+    @AllureId("10")
+    public void oversizedIdempotentBatchIsRejected() {
+        ReflectionTestUtils.setField(personService, "batchChunkSize", 2);
+        ReflectionTestUtils.setField(personService, "idempotentBatchMaxSize", 3);
+        when(idempotencyStore.execute(eq("batch-key"), eq("batch"), eq(BatchResult.class), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<BatchResult>>getArgument(3).get());
+        List<Person> persons = List.of(new Person("A"), new Person("B"), new Person("C"), new Person("D"));
+
+        step("Убеждаемся, что пакет из 4 клиентов при лимите 3 завершается IdempotentBatchTooLargeError (413)", () ->
+                assertThrows(IdempotentBatchTooLargeError.class,
+                        () -> personService.saveAll(persons.iterator(), "batch-key")));
+
+        step("Убеждаемся, что до отказа вставлен только первый чанк, который откатит транзакция ключа", () ->
+                verify(personRepository, times(1)).insertAll(any(), anyInt()));
+    }
+
+    private double collapsed() {
+        return meterRegistry.counter(RequestCoalescer.METRIC, "operation", "findAll", "result", "collapsed").count();
+    }
+}
@@ -0,0 +1,207 @@
+package com.tcs.vetclinic;
+
+import static io.qameta.allure.Allure.step;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tcs.vetclinic.dao.PersonRepository;
+import com.tcs.vetclinic.domain.person.Person;
+import com.tcs.vetclinic.service.PersonWriteBehind;
+import com.tcs.vetclinic.service.PersonWriteQueueFullError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.qameta.allure.AllureId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+public class PersonWriteBehindTests {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    PersonRepository personRepository = mock(PersonRepository.class);
+
+    ExecutorService executor = Executors.newCachedThreadPool();
+
+    PersonWriteBehind personWriteBehind;
+
+    @AfterEach
+    public void stop() throws InterruptedException {
+        personWriteBehind.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Одновременные создания пользователей коммитятся одним пакетом")
+    @AllureId("1")
+    public void concurrentCreatesShareOneCommit() throws Exception {
+        int callers = 20;
+        AtomicLong sequence = new AtomicLong();
+        when(personRepository.insertAll(anyList(), anyInt())).thenAnswer(invocation -> {
+            List<Person> persons = invocation.getArgument(0);
+            return LongStream.range(0, persons.size()).map(i -> sequence.incrementAndGet()).boxed().toList();
+        });
+        personWriteBehind = start(100, 20, Duration.ofSeconds(5), Duration.ofSeconds(10));
+
+        step("Запускаем " + callers + " одновременных POST /person", () -> {
+            List<CompletableFuture<Long>> ids = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                Person person = new Person("Group " + i);
+                ids.add(CompletableFuture.supplyAsync(() -> personWriteBehind.create(person), executor));
+            }
+
+            step("Убеждаемся, что все получили разные id после одной пакетной вставки", () -> {
+                HashSet<Long> distinct = new HashSet<>();
+                for (CompletableFuture<Long> id : ids) {
+                    distinct.add(id.get(10, TimeUnit.SECONDS));
+                }
+                assertEquals(callers, distinct.size());
+                verify(personRepository, times(1)).insertAll(anyList(), anyInt());
+                assertEquals(callers, meterRegistry.summary(PersonWriteBehind.METRIC + ".batch.size").totalAmount());
+            });
+        });
+    }
+
+    @Test
+    @DisplayName("Переполненная очередь записи отклоняет создание пользователя")
+    @AllureId("2")
+    public void fullQueueRejectsCreate() throws Exception {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(personRepository.insertAll(anyList(), anyInt())).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return List.of(1L);
+        });
+        personWriteBehind = start(1, 1, Duration.ZERO, Duration.ofSeconds(10));
+
+        step("Занимаем фоновый поток одной вставкой и заполняем очередь второй", () -> {
+            CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> personWriteBehind.create(new Person("First")), executor);
+            flushing.await(10, TimeUnit.SECONDS);
+            CompletableFuture<Long> second = CompletableFuture.supplyAsync(() -> personWriteBehind.create(new Person("Second")), executor);
+            while (meterRegistry.get(PersonWriteBehind.METRIC + ".queue").gauge().value() < 1) {
+                Thread.sleep(5);
+            }
+
+            step("Убеждаемся, что третье создание завершается PersonWriteQueueFullError (503)", () -> {
+                assertThrows(PersonWriteQueueFullError.class, () -> personWriteBehind.create(new Person("Third")));
+                assertEquals(1.0, meterRegistry.counter(PersonWriteBehind.METRIC + ".rejected").count());
+            });
+            release.countDown();
+            assertEquals(1L, first.get(10, TimeUnit.SECONDS));
+            assertEquals(1L, second.get(10, TimeUnit.SECONDS));
+        });
+    }
+
+    @Test
+    @DisplayName("Error при вставке пакета не останавливает поток записи")
+    @AllureId("3")
+    public void errorDoesNotKillWriter() {
+        when(personRepository.insertAll(anyList(), anyInt()))
+                .thenThrow(new StackOverflowError())
+                .thenReturn(List.of(7L));
+        personWriteBehind = start(10, 1, Duration.ZERO, Duration.ofSeconds(10));
+
+        step("Первое создание падает с Error внутри вставки", () ->
+                assertThrows(IllegalStateException.class, () -> personWriteBehind.create(new Person("First"))));
+
+        step("Убеждаемся, что следующее создание коммитится тем же потоком записи", () ->
+                assertEquals(7L, personWriteBehind.create(new Person("Second"))));
+    }
+
+    @Test
+    @DisplayName("Создание, не закоммиченное за commit-timeout, получает 503, а не ждет вечно")
+    @AllureId("4")
+    public void stuckCommitTimesOut() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(personRepository.insertAll(anyList(), anyInt())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return List.of(1L);
+        });
+        personWriteBehind = start(10, 1, Duration.ZERO, Duration.ofMillis(200));
+
+        step("Создаем клиента, пока вставка висит", () -> {
+            long started = System.nanoTime();
+            assertThrows(PersonWriteQueueFullError.class, () -> personWriteBehind.create(new Person("Stuck")));
+
+            step("Убеждаемся, что ответ пришел через commit-timeout", () ->
+                    assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5)));
+        });
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Остановка во время создания не оставляет запросы без ответа")
+    @AllureId("5")
+    public void stopRacingCreatesAnswersEveryone() throws Exception {
+        int callers = 50;
+        AtomicLong sequence = new AtomicLong();
+        when(personRepository.insertAll(anyList(), anyInt())).thenAnswer(invocation -> {
+            List<Person> persons = invocation.getArgument(0);
+            return LongStream.range(0, persons.size()).map(i -> sequence.incrementAndGet()).boxed().toList();
+        });
+        personWriteBehind = start(1000, 5, Duration.ofMillis(1), Duration.ofMinutes(1));
+
+        step("Останавливаем запись, пока " + callers + " потоков создают клиентов", () -> {
+            CountDownLatch go = new CountDownLatch(1);
+            List<CompletableFuture<Long>> ids = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                Person person = new Person("Racing " + i);
+                ids.add(CompletableFuture.supplyAsync(() -> {
+                    await(go);
+                    return personWriteBehind.create(person);
+                }, executor));
+            }
+            go.countDown();
+            personWriteBehind.stop();
+
+            step("Убеждаемся, что каждый получил id или 503 задолго до commit-timeout, а id - только закоммиченные", () -> {
+                long created = 0;
+                for (CompletableFuture<Long> id : ids) {
+                    try {
+                        id.get(5, TimeUnit.SECONDS);
+                        created++;
+                    } catch (ExecutionException e) {
+                        assertInstanceOf(PersonWriteQueueFullError.class, e.getCause());
+                    }
+                }
+                assertEquals(sequence.get(), created);
+            });
+        });
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private PersonWriteBehind start(int queueCapacity, int maxBatchSize, Duration maxDelay, Duration commitTimeout) {
+        PersonWriteBehind writeBehind = new PersonWriteBehind(personRepository, true,
+                queueCapacity, maxBatchSize, maxDelay, commitTimeout, 100, meterRegistry);
+        writeBehind.start();
+        return writeBehind;
+    }
+}
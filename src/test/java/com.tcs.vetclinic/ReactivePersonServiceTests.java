@@ -0,0 +1,76 @@
+package com.tcs.vetclinic;
+
+import static io.qameta.allure.Allure.step;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.tcs.vetclinic.dao.ReactivePersonRepository;
+import com.tcs.vetclinic.domain.batch.BatchItemError;
+import com.tcs.vetclinic.domain.batch.BatchResult;
+import com.tcs.vetclinic.domain.person.Person;
+import com.tcs.vetclinic.service.PersonCache;
+import com.tcs.vetclinic.service.PersonNotExistError;
+import com.tcs.vetclinic.service.PersonNotFoundError;
+import com.tcs.vetclinic.service.ReactivePersonService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.qameta.allure.AllureId;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ReactivePersonServiceTests {
+
+    ReactivePersonRepository personRepository = mock(ReactivePersonRepository.class);
+
+    ReactivePersonService personService = new ReactivePersonService(personRepository,
+            new PersonCache(100, Duration.ofSeconds(30), Duration.ofSeconds(2), new SimpleMeterRegistry()),
+            Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Test
+    @DisplayName("Реактивный сервис возвращает те же ошибки 404 и 409, что и блокирующий")
+    @AllureId("1")
+    public void missingPersonErrorsMatchBlockingService() {
+        when(personRepository.findById(anyLong())).thenReturn(Mono.empty());
+        when(personRepository.updateById(anyLong(), anyString())).thenReturn(Mono.just(0));
+        when(personRepository.removeById(anyLong())).thenReturn(Mono.just(0));
+
+        step("Убеждаемся, что чтение и обновление id = 99999 завершаются PersonNotFoundError (404)", () -> {
+            assertThrows(PersonNotFoundError.class, () -> personService.findById(99999L).block());
+            assertThrows(PersonNotFoundError.class,
+                    () -> personService.updateById(99999L, new Person("Michael")).block());
+        });
+        step("Убеждаемся, что удаление id = 99999 завершается PersonNotExistError (409)", () ->
+                assertThrows(PersonNotExistError.class, () -> personService.deleteById(99999L).block()));
+    }
+
+    @Test
+    @DisplayName("Пакетное создание в реактивном сервисе сохраняет порядок id и индексы ошибок")
+    @AllureId("2")
+    public void batchKeepsInputOrder() {
+        AtomicLong sequence = new AtomicLong();
+        when(personRepository.save(any(Person.class))).thenAnswer(invocation -> Mono.just(
+                new Person(sequence.incrementAndGet(), invocation.<Person>getArgument(0).getName())));
+
+        step("Создаем пакет из двух валидных клиентов и одного с коротким именем", () -> {
+            BatchResult result = personService.saveAll(Flux.just(
+                    new Person("First"), new Person("x"), new Person("Third"))).block();
+
+            step("Убеждаемся, что id идут в порядке входных данных, а ошибка указывает на индекс 1", () -> {
+                assertEquals(Arrays.asList(1L, null, 2L), result.ids());
+                assertEquals(List.of(1), result.errors().stream().map(BatchItemError::index).toList());
+            });
+        });
+    }
+}
@@ -0,0 +1,116 @@
+package com.tcs.vetclinic;
+
+import static io.qameta.allure.Allure.step;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.tcs.vetclinic.config.ReadWriteRoutingDataSource;
+import com.tcs.vetclinic.config.ReadYourWritesFilter;
+import io.qameta.allure.AllureId;
+import jakarta.servlet.http.Cookie;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReadWriteRoutingTests {
+
+    DataSource dataSource = ReadWriteRoutingDataSource.of(h2("primary"), h2("replica"));
+
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+    @Test
+    @DisplayName("Read-only транзакции идут в реплику, остальные - в основную базу")
+    @AllureId("1")
+    public void readOnlyTransactionsUseReplica() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        step("Убеждаемся, что read-only транзакция читает из реплики", () ->
+                assertEquals("replica", readOnly.execute(status -> database())));
+        step("Убеждаемся, что обычная транзакция и запрос без транзакции идут в основную базу", () -> {
+            assertEquals("primary", readWrite.execute(status -> database()));
+            assertEquals("primary", database());
+        });
+        step("Убеждаемся, что после записи клиента read-only транзакция идет в основную базу", () -> {
+            ReadWriteRoutingDataSource.setPrimaryOnly(true);
+            try {
+                assertEquals("primary", readOnly.execute(status -> database()));
+            } finally {
+                ReadWriteRoutingDataSource.clearPrimaryOnly();
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("После изменяющего запроса чтения клиента закрепляются за основной базой на sticky-window")
+    @AllureId("2")
+    public void writeMakesClientStickyToPrimary() throws Exception {
+        Instant now = Instant.parse("2026-01-01T00:00:00Z");
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(2), Clock.fixed(now, ZoneOffset.UTC));
+        List<ReadWriteRoutingDataSource.Route> routes = new ArrayList<>();
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+
+        step("Выполняем PUT /person/1 и убеждаемся, что он идет в основную базу и выставляет cookie", () -> {
+            filter.doFilter(new MockHttpServletRequest("PUT", "/person/1"), writeResponse,
+                    (request, response) -> routes.add(routeOfReadOnlyTransaction()));
+            assertEquals(ReadWriteRoutingDataSource.Route.PRIMARY, routes.get(0));
+            assertNotNull(writeResponse.getCookie(ReadYourWritesFilter.COOKIE_NAME));
+        });
+
+        step("Убеждаемся, что GET с этим cookie в течение окна идет в основную базу", () -> {
+            MockHttpServletRequest read = new MockHttpServletRequest("GET", "/person/1");
+            read.setCookies(writeResponse.getCookie(ReadYourWritesFilter.COOKIE_NAME));
+            filter.doFilter(read, new MockHttpServletResponse(),
+                    (request, response) -> routes.add(routeOfReadOnlyTransaction()));
+            assertEquals(ReadWriteRoutingDataSource.Route.PRIMARY, routes.get(1));
+        });
+
+        step("Убеждаемся, что GET с истекшим cookie и без cookie идет в реплику", () -> {
+            MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/person/1");
+            expired.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, Long.toString(now.toEpochMilli() - 1)));
+            MockHttpServletResponse expiredResponse = new MockHttpServletResponse();
+            filter.doFilter(expired, expiredResponse,
+                    (request, response) -> routes.add(routeOfReadOnlyTransaction()));
+            filter.doFilter(new MockHttpServletRequest("GET", "/person/1"), new MockHttpServletResponse(),
+                    (request, response) -> routes.add(routeOfReadOnlyTransaction()));
+            assertEquals(ReadWriteRoutingDataSource.Route.REPLICA, routes.get(2));
+            assertEquals(ReadWriteRoutingDataSource.Route.REPLICA, routes.get(3));
+            assertNull(expiredResponse.getCookie(ReadYourWritesFilter.COOKIE_NAME));
+        });
+    }
+
+    private ReadWriteRoutingDataSource.Route routeOfReadOnlyTransaction() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> ReadWriteRoutingDataSource.Route.valueOf(database().toUpperCase()));
+    }
+
+    private String database() {
+        return jdbcTemplate.queryForObject("SELECT name FROM instance", String.class);
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        new JdbcTemplate(h2).execute("CREATE TABLE IF NOT EXISTS instance (name VARCHAR(16))");
+        new JdbcTemplate(h2).execute("MERGE INTO instance KEY (name) VALUES ('" + name + "')");
+        return h2;
+    }
+}
@@ -0,0 +1,97 @@
+package com.tcs.vetclinic;
+
+import static io.qameta.allure.Allure.step;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.tcs.vetclinic.service.PersonNotFoundError;
+import com.tcs.vetclinic.service.RequestCoalescer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.qameta.allure.AllureId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RequestCoalescerTests {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Ожидание чужого запроса ограничено max-wait")
+    @AllureId("1")
+    public void followerFallsBackAfterMaxWait() throws Exception {
+        RequestCoalescer requestCoalescer = new RequestCoalescer(true, Duration.ofMillis(50), meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        step("Запускаем медленный запрос и второй такой же вызов", () -> {
+            CompletableFuture<String> leader = CompletableFuture.supplyAsync(() ->
+                    requestCoalescer.execute("findById", 1L, () -> {
+                        loads.incrementAndGet();
+                        started.countDown();
+                        await(release);
+                        return "leader";
+                    }));
+            started.await(10, TimeUnit.SECONDS);
+            String follower = requestCoalescer.execute("findById", 1L, () -> "leader", () -> {
+                loads.incrementAndGet();
+                return "fallback";
+            });
+            release.countDown();
+
+            step("Убеждаемся, что второй вызов не дождался первого и выполнил fallback", () -> {
+                assertEquals("fallback", follower);
+                assertEquals("leader", leader.get(10, TimeUnit.SECONDS));
+                assertEquals(2, loads.get());
+                assertEquals(1.0, meterRegistry.counter(RequestCoalescer.METRIC,
+                        "operation", "findById", "result", "timeout").count());
+            });
+        });
+    }
+
+    @Test
+    @DisplayName("Ошибка общего запроса получают все ожидающие вызовы")
+    @AllureId("2")
+    public void leaderErrorIsSharedWithFollowers() throws Exception {
+        RequestCoalescer requestCoalescer = new RequestCoalescer(true, Duration.ofSeconds(10), meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+
+        step("Запускаем запрос, который завершится PersonNotFoundError, и присоединяемся к нему", () -> {
+            CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() ->
+                    requestCoalescer.execute("findById", 2L, () -> {
+                        await(release);
+                        throw new PersonNotFoundError("В репозитории нет клиента с таким id");
+                    }));
+            while (meterRegistry.find(RequestCoalescer.METRIC).tag("result", "leader").counter() == null) {
+                Thread.sleep(5);
+            }
+            CompletableFuture<Object> follower = CompletableFuture.supplyAsync(() ->
+                    requestCoalescer.execute("findById", 2L, () -> "second query"));
+            while (meterRegistry.find(RequestCoalescer.METRIC).tag("result", "collapsed").counter() == null) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            step("Убеждаемся, что оба вызова завершились PersonNotFoundError", () -> {
+                assertEquals(PersonNotFoundError.class, assertThrows(Exception.class,
+                        () -> leader.get(10, TimeUnit.SECONDS)).getCause().getClass());
+                assertEquals(PersonNotFoundError.class, assertThrows(Exception.class,
+                        () -> follower.get(10, TimeUnit.SECONDS)).getCause().getClass());
+            });
+        });
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
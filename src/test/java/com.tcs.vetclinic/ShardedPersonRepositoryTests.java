@@ -0,0 +1,143 @@
+package com.tcs.vetclinic;
+
+import static io.qameta.allure.Allure.step;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tcs.vetclinic.config.ShardRoutingDataSource;
+import com.tcs.vetclinic.dao.PersonRepository;
+import com.tcs.vetclinic.dao.ShardedPersonRepository;
+import com.tcs.vetclinic.domain.person.Person;
+import com.tcs.vetclinic.domain.sort.SortType;
+import io.qameta.allure.AllureId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+public class ShardedPersonRepositoryTests {
+    private static final int SHARDS = 3;
+    private static final long ROWS = 20;
+
+    PersonRepository personRepository = mock(PersonRepository.class);
+
+    PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    ShardedPersonRepository shardedPersonRepository =
+            new ShardedPersonRepository(personRepository, SHARDS, transactionManager);
+
+    List<Integer> calls = new ArrayList<>();
+
+    @BeforeEach
+    public void shards() {
+        when(personRepository.findAllAsc(anyInt(), eq(0))).thenAnswer(invocation ->
+                shard(Comparator.naturalOrder()).limit(invocation.<Integer>getArgument(0)).toList());
+        when(personRepository.findAllDesc(anyInt(), eq(0))).thenAnswer(invocation ->
+                shard(Comparator.reverseOrder()).limit(invocation.<Integer>getArgument(0)).toList());
+        when(personRepository.findAllAfter(anyLong(), anyInt())).thenAnswer(invocation ->
+                shard(Comparator.naturalOrder())
+                        .filter(person -> person.getId() > invocation.<Long>getArgument(0))
+                        .limit(invocation.<Integer>getArgument(1)).toList());
+        when(personRepository.findAllBefore(anyLong(), anyInt())).thenAnswer(invocation ->
+                shard(Comparator.reverseOrder())
+                        .filter(person -> person.getId() < invocation.<Long>getArgument(0))
+                        .limit(invocation.<Integer>getArgument(1)).toList());
+        when(personRepository.insertAll(anyList(), anyInt())).thenAnswer(invocation -> {
+            calls.add(ShardRoutingDataSource.currentShard());
+            return List.of();
+        });
+        when(personRepository.updateById(anyLong(), any())).thenAnswer(invocation -> {
+            calls.add(ShardRoutingDataSource.currentShard());
+            return 1;
+        });
+    }
+
+    @Test
+    @DisplayName("Страница findAll с offset собирается со всех шардов в порядке id")
+    @AllureId("1")
+    public void pagesAreMergedAcrossShards() {
+        step("Запрашиваем третью страницу по 4 записи в обоих направлениях", () -> {
+            List<Person> asc = shardedPersonRepository.findAllAsc(4, 8);
+            List<Person> desc = shardedPersonRepository.findAllDesc(4, 8);
+
+            step("Убеждаемся, что страницы совпадают со страницами одной базы", () -> {
+                assertEquals(List.of(9L, 10L, 11L, 12L), asc.stream().map(Person::getId).toList());
+                assertEquals(List.of(12L, 11L, 10L, 9L), desc.stream().map(Person::getId).toList());
+            });
+        });
+    }
+
+    @Test
+    @DisplayName("Выгрузка диапазона сливает шарды постранично")
+    @AllureId("2")
+    public void exportStreamsMergedRange() {
+        step("Выгружаем id с 3 по 17 страницами по 2 записи по убыванию", () -> {
+            List<Long> ids = new ArrayList<>();
+            shardedPersonRepository.forEach(3, 17, SortType.DESC, 2, person -> ids.add(person.getId()));
+
+            step("Убеждаемся, что получены все id диапазона по одному разу и по порядку", () ->
+                    assertEquals(LongStream.rangeClosed(3, 17).map(id -> 20 - id).boxed().toList(), ids));
+        });
+    }
+
+    @Test
+    @DisplayName("Новые строки раскладываются по шардам по кругу, обновление идет в шард своего id")
+    @AllureId("3")
+    public void writesAreRoutedByShard() {
+        step("Вставляем три пакета и обновляем клиентов 5 и 9", () -> {
+            for (int i = 0; i < SHARDS; i++) {
+                shardedPersonRepository.insertAll(List.of(new Person("Batch " + i)), 100);
+            }
+            shardedPersonRepository.updateById(5, new Person("Renamed"));
+            shardedPersonRepository.updateById(9, new Person("Renamed"));
+
+            step("Убеждаемся, что пакеты попали в разные шарды, а обновления - в шард (id - 1) mod 3", () ->
+                    assertEquals(List.of(0, 1, 2, 1, 2), calls));
+        });
+    }
+
+    @Test
+    @DisplayName("В транзакции вызывающего домашний шард работает в ней же, другие шарды - в отдельных")
+    @AllureId("4")
+    public void homeShardJoinsCallerTransaction() {
+        step("В открытой транзакции обновляем клиентов 1 и 4 домашнего шарда и клиента 2 шарда 1", () -> {
+            TransactionSynchronizationManager.setActualTransactionActive(true);
+            try {
+                shardedPersonRepository.updateById(1, new Person("Renamed"));
+                shardedPersonRepository.updateById(4, new Person("Renamed"));
+                shardedPersonRepository.updateById(2, new Person("Renamed"));
+            } finally {
+                TransactionSynchronizationManager.setActualTransactionActive(false);
+            }
+
+            step("Убеждаемся, что отдельная транзакция открыта только для шарда 1", () -> {
+                assertEquals(List.of(0, 0, 1), calls);
+                verify(transactionManager, times(1)).getTransaction(any());
+            });
+        });
+    }
+
+    private Stream<Person> shard(Comparator<Long> order) {
+        int shard = ShardRoutingDataSource.currentShard();
+        return LongStream.rangeClosed(1, ROWS)
+                .filter(id -> ShardedPersonRepository.shardOf(id, SHARDS) == shard)
+                .boxed()
+                .sorted(order)
+                .map(id -> new Person(id, "client-" + id));
+    }
+}
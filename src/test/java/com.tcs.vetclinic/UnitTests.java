@@ -3,7 +3,17 @@ package com.tcs.vetclinic;
 import static io.qameta.allure.Allure.step;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
-
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.tcs.vetclinic.domain.batch.BatchResult;
+import com.tcs.vetclinic.domain.change.ChangeBatch;
+import com.tcs.vetclinic.domain.change.ChangeType;
+import com.tcs.vetclinic.domain.delete.BulkDeleteProgress;
+import com.tcs.vetclinic.domain.importjob.ImportJob;
+import com.tcs.vetclinic.domain.importjob.ImportJobRequest;
+import com.tcs.vetclinic.domain.lookup.PersonLookup;
 import com.tcs.vetclinic.domain.person.Person;
 import io.qameta.allure.AllureId;
 import org.junit.jupiter.api.DisplayName;
@@ -13,12 +23,17 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.HttpStatus;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
 
 public class UnitTests {
 
@@ -303,5 +318,409 @@ public class UnitTests {
             }
         });
     }
-}
 
+    @Test
+    @DisplayName("Получение списка пользователей по курсору")
+    @AllureId("12")
+    public void test12() {
+        String url = "http://localhost:8080/api/person?size=100";
+
+        step("Получаем первых пользователей постранично через page/size", () -> {
+            Person[] expected = restTemplate.getForEntity(url, Person[].class).getBody();
+
+            step("Убеждаемся, что обход с пустого after возвращает тех же пользователей и курсор следующей страницы", () -> {
+                ResponseEntity<Person[]> firstPage = restTemplate.getForEntity(
+                        "http://localhost:8080/api/person?size=1&after=", Person[].class);
+                assertEquals(1, firstPage.getBody().length);
+                assertEquals(expected[0], firstPage.getBody()[0]);
+
+                String next = firstPage.getHeaders().getFirst("X-Next-Cursor");
+                assertNotNull(next);
+                if (expected.length > 1) {
+                    ResponseEntity<Person[]> secondPage = restTemplate.getForEntity(
+                            "http://localhost:8080/api/person?size=1&after=" + next, Person[].class);
+                    assertEquals(expected[1], secondPage.getBody()[0]);
+                }
+            });
+        });
+    }
+
+    @Test
+    @DisplayName("Попытка получения списка пользователей с некорректным курсором")
+    @AllureId("13")
+    public void test13() {
+        String url = "http://localhost:8080/api/person?after=not-a-cursor";
+
+        step("Убеждаемся, что GET /person с некорректным курсором возвращает 400", () -> {
+            try {
+                restTemplate.getForEntity(url, Person[].class);
+                assertEquals(true, false);
+            }
+            catch (Exception e) {
+                assertEquals(true, e.getMessage().contains("400"));
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Пакетное добавление пользователей с невалидным элементом")
+    @AllureId("14")
+    public void test14() {
+        String url = "http://localhost:8080/api/person/batch";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+
+        Person[] persons = {new Person("Batch One"), new Person("ab"), new Person("Batch Three")};
+
+        step("Выполняем POST /person/batch с двумя валидными и одним невалидным пользователем", () -> {
+            ResponseEntity<BatchResult> batchResponse = restTemplate.exchange(
+                    url,
+                    HttpMethod.POST,
+                    new HttpEntity<>(persons, headers),
+                    BatchResult.class
+            );
+
+            step("Убеждаемся, что id вернулись в порядке запроса, а ошибка указывает на второй элемент", () -> {
+                assertEquals(HttpStatus.CREATED, batchResponse.getStatusCode());
+                BatchResult result = batchResponse.getBody();
+                assertEquals(3, result.ids().size());
+                assertNotNull(result.ids().get(0));
+                assertNull(result.ids().get(1));
+                assertNotNull(result.ids().get(2));
+                assertEquals(1, result.errors().size());
+                assertEquals(1, result.errors().get(0).index());
+            });
+
+            step("Проверяем, что GET /person/{id} возвращает созданных пользователей", () -> {
+                String getUrl = "http://localhost:8080/api/person/%s".formatted(batchResponse.getBody().ids().get(2));
+                assertEquals("Batch Three", restTemplate.getForEntity(getUrl, Person.class).getBody().getName());
+            });
+        });
+    }
+
+    @Test
+    @DisplayName("Выгрузка пользователей в CSV по диапазону id")
+    @AllureId("15")
+    public void test15() {
+        String url = "http://localhost:8080/api/person/export?format=CSV&fromId=1&toId=2";
+
+        step("Убеждаемся, что GET /person/export возвращает заголовок и пользователей из диапазона", () -> {
+            ResponseEntity<String> exportResponse = restTemplate.getForEntity(url, String.class);
+            String[] lines = exportResponse.getBody().split("\n");
+
+            assertEquals(HttpStatus.OK, exportResponse.getStatusCode());
+            assertEquals("id,name", lines[0]);
+            for (int i = 1; i < lines.length; i++) {
+                long id = Long.parseLong(lines[i].substring(0, lines[i].indexOf(',')));
+                assertEquals(true, id >= 1 && id <= 2);
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Поиск пользователей по началу имени без учета регистра")
+    @AllureId("16")
+    public void test16() {
+        String postUrl = "http://localhost:8080/api/person";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+
+        step("Создаем пользователя с именем 'Searchable Sosemba'", () -> {
+            ResponseEntity<Long> createPersonResponse = restTemplate.exchange(
+                    postUrl,
+                    HttpMethod.POST,
+                    new HttpEntity<>(new Person("Searchable Sosemba"), headers),
+                    Long.class
+            );
+
+            step("Убеждаемся, что GET /person/search?name=sEaRcHaBlE находит созданного пользователя", () -> {
+                String searchUrl = "http://localhost:8080/api/person/search?name=sEaRcHaBlE&size=100";
+                Person[] found = restTemplate.getForEntity(searchUrl, Person[].class).getBody();
+
+                assertEquals(true, Arrays.stream(found)
+                        .anyMatch(p -> p.getId().equals(createPersonResponse.getBody())));
+                assertEquals(true, Arrays.stream(found)
+                        .allMatch(p -> p.getName().toLowerCase().startsWith("searchable")));
+            });
+        });
+    }
+
+    @Test
+    @DisplayName("Условные запросы клиента по ETag")
+    @AllureId("17")
+    public void test17() {
+        String postUrl = "http://localhost:8080/api/person";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+
+        step("Создаем пользователя с именем 'Conditional Sosemba'", () -> {
+            Long id = restTemplate.exchange(
+                    postUrl,
+                    HttpMethod.POST,
+                    new HttpEntity<>(new Person("Conditional Sosemba"), headers),
+                    Long.class
+            ).getBody();
+            String getUrl = postUrl + "/" + id;
+            String etag = restTemplate.getForEntity(getUrl, Person.class).getHeaders().getETag();
+
+            step("Убеждаемся, что GET /person/{id} с актуальным If-None-Match возвращает 304", () -> {
+                HttpHeaders conditional = new HttpHeaders();
+                conditional.setIfNoneMatch(etag);
+                ResponseEntity<Person> response = restTemplate.exchange(
+                        getUrl, HttpMethod.GET, new HttpEntity<>(conditional), Person.class);
+
+                assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+                assertNull(response.getBody());
+            });
+
+            step("Обновляем пользователя с актуальным If-Match", () -> {
+                HttpHeaders conditional = new HttpHeaders();
+                conditional.setContentType(MediaType.APPLICATION_JSON);
+                conditional.setIfMatch(etag);
+                ResponseEntity<Void> response = restTemplate.exchange(
+                        getUrl, HttpMethod.PUT, new HttpEntity<>(new Person("Conditional Sosemba 2"), conditional), Void.class);
+
+                assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+                assertEquals(false, etag.equals(restTemplate.getForEntity(getUrl, Person.class).getHeaders().getETag()));
+            });
+
+            step("Убеждаемся, что PUT /person/{id} с устаревшим If-Match возвращает 412", () -> {
+                HttpHeaders conditional = new HttpHeaders();
+                conditional.setContentType(MediaType.APPLICATION_JSON);
+                conditional.setIfMatch(etag);
+                try {
+                    restTemplate.exchange(
+                            getUrl, HttpMethod.PUT, new HttpEntity<>(new Person("Conditional Sosemba 3"), conditional), Void.class);
+                    assertEquals(true, false);
+                }
+                catch (Exception e) {
+                    assertEquals(true, e.getMessage().contains("412"));
+                }
+                assertEquals("Conditional Sosemba 2", restTemplate.getForEntity(getUrl, Person.class).getBody().getName());
+            });
+        });
+    }
+
+    @Test
+    @DisplayName("Количество пользователей меняется при добавлении и удалении")
+    @AllureId("18")
+    public void test18() {
+        String postUrl = "http://localhost:8080/api/person";
+        String countUrl = "http://localhost:8080/api/person/count";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        Long before = restTemplate.getForObject(countUrl, Long.class);
+
+        step("Создаем пользователя и убеждаемся, что GET /person/count вырос на 1", () -> {
+            Long id = restTemplate.exchange(
+                    postUrl,
+                    HttpMethod.POST,
+                    new HttpEntity<>(new Person("Counted Sosemba"), headers),
+                    Long.class
+            ).getBody();
+            assertEquals(before + 1, restTemplate.getForObject(countUrl, Long.class));
+
+            step("Удаляем пользователя и убеждаемся, что количество вернулось", () -> {
+                restTemplate.delete(postUrl + "/" + id);
+                assertEquals(before, restTemplate.getForObject(countUrl, Long.class));
+            });
+        });
+
+        step("Убеждаемся, что GET /person?total=true возвращает заголовок X-Total-Count", () -> {
+            ResponseEntity<Person[]> response = restTemplate.getForEntity(postUrl + "?total=true", Person[].class);
+            assertNotNull(response.getHeaders().getFirst("X-Total-Count"));
+            assertNull(restTemplate.getForEntity(postUrl, Person[].class).getHeaders().getFirst("X-Total-Count"));
+        });
+    }
+
+    @Test
+    @DisplayName("Список пользователей в CBOR и сжатие больших страниц")
+    @AllureId("19")
+    public void test19() {
+        String url = "http://localhost:8080/api/person?size=1000";
+
+        step("Убеждаемся, что GET /person с Accept: application/cbor возвращает CBOR с теми же данными", () -> {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setAccept(Collections.singletonList(MediaType.APPLICATION_CBOR));
+            ResponseEntity<Person[]> cbor = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), Person[].class);
+            Person[] json = restTemplate.getForEntity(url, Person[].class).getBody();
+
+            assertEquals(MediaType.APPLICATION_CBOR, cbor.getHeaders().getContentType());
+            assertEquals(Arrays.asList(json), Arrays.asList(cbor.getBody()));
+        });
+
+        step("Убеждаемся, что маленький ответ не сжимается, а страница больше порога сжимается gzip", () -> {
+            assertNull(contentEncoding("http://localhost:8080/api/person?size=1"));
+            restTemplate.postForEntity("http://localhost:8080/api/person/batch",
+                    Collections.nCopies(10, new Person("Compressed Sosemba ".repeat(13))), BatchResult.class);
+            assertEquals("gzip", contentEncoding(url));
+        });
+    }
+
+    @Test
+    @DisplayName("Повтор создания с тем же Idempotency-Key возвращает тот же id")
+    @AllureId("20")
+    public void test20() {
+        String postUrl = "http://localhost:8080/api/person";
+        String countUrl = "http://localhost:8080/api/person/count?exact=true";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("Idempotency-Key", UUID.randomUUID().toString());
+
+        step("Дважды выполняем POST /person с одним Idempotency-Key", () -> {
+            HttpEntity<Person> request = new HttpEntity<>(new Person("Idempotent Sosemba"), headers);
+            Long first = restTemplate.exchange(postUrl, HttpMethod.POST, request, Long.class).getBody();
+            Long count = restTemplate.getForObject(countUrl, Long.class);
+            Long retry = restTemplate.exchange(postUrl, HttpMethod.POST, request, Long.class).getBody();
+
+            step("Убеждаемся, что повтор вернул тот же id и не создал клиента", () -> {
+                assertEquals(first, retry);
+                assertEquals(count, restTemplate.getForObject(countUrl, Long.class));
+            });
+        });
+
+        step("Убеждаемся, что повтор POST /person/batch возвращает первый ответ", () -> {
+            HttpHeaders batchHeaders = new HttpHeaders();
+            batchHeaders.setContentType(MediaType.APPLICATION_JSON);
+            batchHeaders.set("Idempotency-Key", UUID.randomUUID().toString());
+            HttpEntity<List<Person>> request = new HttpEntity<>(
+                    List.of(new Person("Idempotent Batch 1"), new Person("Idempotent Batch 2")), batchHeaders);
+            BatchResult first = restTemplate.exchange(postUrl + "/batch", HttpMethod.POST, request, BatchResult.class).getBody();
+            BatchResult retry = restTemplate.exchange(postUrl + "/batch", HttpMethod.POST, request, BatchResult.class).getBody();
+
+            assertEquals(first.ids(), retry.ids());
+        });
+
+        step("Убеждаемся, что ключ создания нельзя использовать для пакета (422)", () -> {
+            HttpEntity<List<Person>> request = new HttpEntity<>(List.of(new Person("Idempotent Batch 3")), headers);
+            HttpClientErrorException e = assertThrows(HttpClientErrorException.class,
+                    () -> restTemplate.exchange(postUrl + "/batch", HttpMethod.POST, request, BatchResult.class));
+            assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, e.getStatusCode());
+        });
+    }
+
+    @Test
+    @DisplayName("Лента изменений возвращает создание и удаление пользователя")
+    @AllureId("21")
+    public void test21() {
+        String postUrl = "http://localhost:8080/api/person";
+        String changesUrl = "http://localhost:8080/api/person/changes?after=%s&timeout=%s";
+        long head = restTemplate.getForObject(postUrl + "/changes?timeout=0", ChangeBatch.class).next();
+
+        step("Создаем и удаляем пользователя", () -> {
+            Long id = restTemplate.postForObject(postUrl, new Person("Changed Sosemba"), Long.class);
+            restTemplate.delete(postUrl + "/" + id);
+
+            step("Убеждаемся, что GET /person/changes после прежней позиции вернул INSERT и DELETE", () -> {
+                List<ChangeType> operations = new ArrayList<>();
+                long after = head;
+                while (operations.size() < 2) {
+                    ChangeBatch batch = restTemplate.getForObject(changesUrl.formatted(after, 5), ChangeBatch.class);
+                    batch.changes().stream()
+                            .filter(change -> id.equals(change.personId()))
+                            .forEach(change -> operations.add(change.operation()));
+                    assertTrue(batch.next() > after);
+                    after = batch.next();
+                }
+                assertEquals(List.of(ChangeType.INSERT, ChangeType.DELETE), operations);
+            });
+        });
+    }
+
+    @Test
+    @DisplayName("Получение нескольких пользователей по списку id")
+    @AllureId("22")
+    public void test22() {
+        String postUrl = "http://localhost:8080/api/person";
+        Long first = restTemplate.postForObject(postUrl, new Person("Lookup Sosemba"), Long.class);
+        Long second = restTemplate.postForObject(postUrl, new Person("Lookup Lumumba"), Long.class);
+        long missing = Long.MAX_VALUE;
+
+        step("Выполняем GET /person?ids=... и POST /person/lookup с несуществующим id в середине", () -> {
+            PersonLookup byQuery = restTemplate.getForObject(
+                    postUrl + "?ids=" + second + "," + missing + "," + first, PersonLookup.class);
+            PersonLookup byBody = restTemplate.postForObject(
+                    postUrl + "/lookup", List.of(second, missing, first), PersonLookup.class);
+
+            step("Убеждаемся, что клиенты идут в порядке запроса, а ненайденный id отмечен", () -> {
+                for (PersonLookup lookup : List.of(byQuery, byBody)) {
+                    assertEquals(Arrays.asList(new Person(second, "Lookup Lumumba"), null, new Person(first, "Lookup Sosemba")),
+                            lookup.persons());
+                    assertEquals(List.of(missing), lookup.missing());
+                }
+            });
+        });
+    }
+
+    @Test
+    @DisplayName("Массовое удаление пользователей по списку id и по диапазону id")
+    @AllureId("23")
+    public void test23() {
+        String postUrl = "http://localhost:8080/api/person";
+        Long first = restTemplate.postForObject(postUrl, new Person("Bulk Delete 1"), Long.class);
+        Long second = restTemplate.postForObject(postUrl, new Person("Bulk Delete 2"), Long.class);
+        Long third = restTemplate.postForObject(postUrl, new Person("Bulk Delete 3"), Long.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+
+        step("Выполняем DELETE /person со списком id, один из которых не существует", () -> {
+            BulkDeleteProgress result = restTemplate.exchange(postUrl, HttpMethod.DELETE,
+                    new HttpEntity<>(List.of(first, second, Long.MAX_VALUE), headers), BulkDeleteProgress.class).getBody();
+
+            step("Убеждаемся, что удалены два пользователя одной порцией", () -> {
+                assertEquals(new BulkDeleteProgress(1, 2, Long.MAX_VALUE, true), result);
+                assertThrows(HttpClientErrorException.NotFound.class,
+                        () -> restTemplate.getForObject(postUrl + "/" + first, Person.class));
+            });
+        });
+
+        step("Выполняем DELETE /person?fromId=&toId= с построчным отчетом в NDJSON", () -> {
+            String report = restTemplate.execute(postUrl + "?fromId=" + third + "&toId=" + third, HttpMethod.DELETE,
+                    request -> request.getHeaders().setAccept(List.of(MediaType.parseMediaType("application/x-ndjson"))),
+                    response -> new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8));
+
+            step("Убеждаемся, что после строки порции пришла итоговая строка", () -> {
+                List<String> lines = report.lines().toList();
+                assertEquals(2, lines.size());
+                assertTrue(lines.get(1).contains("\"deleted\":1") && lines.get(1).contains("\"done\":true"));
+                assertThrows(HttpClientErrorException.NotFound.class,
+                        () -> restTemplate.getForObject(postUrl + "/" + third, Person.class));
+            });
+        });
+
+        step("Убеждаемся, что DELETE /person без списка и диапазона отклоняется (400)", () -> {
+            HttpClientErrorException e = assertThrows(HttpClientErrorException.class,
+                    () -> restTemplate.exchange(postUrl, HttpMethod.DELETE, new HttpEntity<>(headers), BulkDeleteProgress.class));
+            assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        });
+    }
+
+    @Test
+    @DisplayName("Задание импорта не создается для файла вне каталога импорта")
+    @AllureId("24")
+    public void test24() {
+        String importUrl = "http://localhost:8080/api/person/import-jobs";
+
+        step("Выполняем POST /person/import-jobs с путем за пределы каталога импорта", () -> {
+            HttpClientErrorException e = assertThrows(HttpClientErrorException.class,
+                    () -> restTemplate.postForObject(importUrl, new ImportJobRequest("../vetclinic.mv.db"), ImportJob.class));
+
+            step("Убеждаемся, что вернулся 400", () -> assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode()));
+        });
+
+        step("Убеждаемся, что несуществующее задание возвращает 404", () ->
+                assertThrows(HttpClientErrorException.NotFound.class,
+                        () -> restTemplate.getForObject(importUrl + "/" + Long.MAX_VALUE, ImportJob.class)));
+    }
+
+    private String contentEncoding(String url) {
+        return restTemplate.execute(url, HttpMethod.GET,
+                request -> request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip"),
+                response -> response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+}